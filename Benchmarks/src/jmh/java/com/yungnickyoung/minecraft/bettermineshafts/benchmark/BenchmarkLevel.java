@@ -0,0 +1,251 @@
+package com.yungnickyoung.minecraft.bettermineshafts.benchmark;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.data.BuiltinRegistries;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.EntityBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.ticks.BlackholeTickAccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * In-memory stand-in for the {@link WorldGenLevel} that pieces see during postProcess.
+ * Blocks are stored in lazily created {@link ProtoChunk}s whose terrain comes from a {@link Terrain} function,
+ * so the level behaves like a worldgen region without a server, chunk generator or light engine.
+ * <p>
+ * Only the methods piece generation actually touches are implemented; anything else throws.
+ * {@link WorldGenLevel#getLevel()} returns null, so code that places configured features
+ * (lush and dripstone decorations) cannot run against this level.
+ */
+public final class BenchmarkLevel implements InvocationHandler {
+    public static final int MIN_BUILD_HEIGHT = -64;
+    public static final int HEIGHT = 384;
+
+    private static final LevelHeightAccessor HEIGHT_ACCESSOR = new LevelHeightAccessor() {
+        @Override
+        public int getHeight() {
+            return HEIGHT;
+        }
+
+        @Override
+        public int getMinBuildHeight() {
+            return MIN_BUILD_HEIGHT;
+        }
+    };
+
+    private final Terrain terrain;
+    private final Long2ObjectMap<ProtoChunk> chunks = new Long2ObjectOpenHashMap<>();
+    private final Random random = new Random(0L);
+    private final WorldGenLevel level;
+    private long entitiesAdded;
+
+    public BenchmarkLevel(Terrain terrain) {
+        this.terrain = terrain;
+        this.level = (WorldGenLevel) Proxy.newProxyInstance(WorldGenLevel.class.getClassLoader(), new Class<?>[]{WorldGenLevel.class}, this);
+    }
+
+    public WorldGenLevel level() {
+        return this.level;
+    }
+
+    public static LevelHeightAccessor heightAccessor() {
+        return HEIGHT_ACCESSOR;
+    }
+
+    public int chunkCount() {
+        return this.chunks.size();
+    }
+
+    /**
+     * Entities added through {@link WorldGenLevel#addFreshEntity} plus those written straight into the proto chunks.
+     */
+    public long entitiesAdded() {
+        long entities = this.entitiesAdded;
+        for (ProtoChunk chunk : this.chunks.values()) {
+            entities += chunk.getEntities().size();
+        }
+        return entities;
+    }
+
+    /**
+     * Drops every chunk so that the next access regenerates it from the terrain function.
+     */
+    public void clear() {
+        this.chunks.clear();
+        this.entitiesAdded = 0;
+    }
+
+    /**
+     * Writes the terrain back into every block of the given box, undoing whatever a benchmark placed there.
+     */
+    public void resetRegion(BoundingBox box) {
+        for (int x = box.minX(); x <= box.maxX(); x++) {
+            for (int z = box.minZ(); z <= box.maxZ(); z++) {
+                ProtoChunk chunk = getChunk(x >> 4, z >> 4);
+                for (int y = Math.max(box.minY(), MIN_BUILD_HEIGHT); y <= box.maxY() && y < MIN_BUILD_HEIGHT + HEIGHT; y++) {
+                    LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+                    section.setBlockState(x & 15, y & 15, z & 15, this.terrain.getBlockState(x, y, z), false);
+                }
+            }
+        }
+    }
+
+    public ProtoChunk getChunk(int chunkX, int chunkZ) {
+        return this.chunks.computeIfAbsent(ChunkPos.asLong(chunkX, chunkZ), key -> createChunk(new ChunkPos(chunkX, chunkZ)));
+    }
+
+    private ProtoChunk createChunk(ChunkPos chunkPos) {
+        ProtoChunk chunk = new ProtoChunk(chunkPos, UpgradeData.EMPTY, HEIGHT_ACCESSOR, BuiltinRegistries.BIOME, null);
+        for (int x = chunkPos.getMinBlockX(); x <= chunkPos.getMaxBlockX(); x++) {
+            for (int z = chunkPos.getMinBlockZ(); z <= chunkPos.getMaxBlockZ(); z++) {
+                for (int y = MIN_BUILD_HEIGHT; y < MIN_BUILD_HEIGHT + HEIGHT; y++) {
+                    BlockState state = this.terrain.getBlockState(x, y, z);
+                    if (!state.isAir()) {
+                        chunk.getSection(chunk.getSectionIndex(y)).setBlockState(x & 15, y & 15, z & 15, state, false);
+                    }
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private BlockState getBlockState(BlockPos pos) {
+        if (pos.getY() < MIN_BUILD_HEIGHT || pos.getY() >= MIN_BUILD_HEIGHT + HEIGHT) {
+            return Blocks.VOID_AIR.defaultBlockState();
+        }
+        return getChunk(pos.getX() >> 4, pos.getZ() >> 4).getBlockState(pos);
+    }
+
+    private boolean setBlock(BlockPos pos, BlockState state) {
+        if (pos.getY() < MIN_BUILD_HEIGHT || pos.getY() >= MIN_BUILD_HEIGHT + HEIGHT) {
+            return false;
+        }
+        ProtoChunk chunk = getChunk(pos.getX() >> 4, pos.getZ() >> 4);
+        BlockState oldState = chunk.setBlockState(pos, state, false);
+        if (oldState != null && oldState.hasBlockEntity()) {
+            chunk.removeBlockEntity(pos);
+        }
+        if (state.hasBlockEntity()) {
+            chunk.setBlockEntity(((EntityBlock) state.getBlock()).newBlockEntity(pos.immutable(), state));
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "getBlockState":
+                return getBlockState((BlockPos) args[0]);
+            case "getFluidState":
+                return getBlockState((BlockPos) args[0]).getFluidState();
+            case "setBlock":
+                return setBlock((BlockPos) args[0], (BlockState) args[1]);
+            case "removeBlock":
+                return setBlock((BlockPos) args[0], Blocks.AIR.defaultBlockState());
+            case "isStateAtPosition":
+                return ((Predicate<BlockState>) args[1]).test(getBlockState((BlockPos) args[0]));
+            case "getBlockEntity":
+                if (args.length == 1) {
+                    BlockPos pos = (BlockPos) args[0];
+                    return getChunk(pos.getX() >> 4, pos.getZ() >> 4).getBlockEntity(pos);
+                }
+                break;
+            case "getChunk":
+                if (args.length == 4) {
+                    return getChunk((int) args[0], (int) args[1]);
+                }
+                break;
+            case "hasChunk":
+                return true;
+            case "addFreshEntity":
+                this.entitiesAdded++;
+                return args[0] instanceof Entity;
+            case "getMinBuildHeight":
+                return MIN_BUILD_HEIGHT;
+            case "getHeight":
+                return HEIGHT;
+            case "getRawBrightness":
+            case "getBrightness":
+                // No light engine; treat every position as dark, which is what mineshafts are.
+                return 0;
+            case "getSeed":
+                return 0L;
+            case "getRandom":
+                return this.random;
+            case "isClientSide":
+                return false;
+            case "getLevel":
+                return null;
+            case "getBlockTicks":
+            case "getFluidTicks":
+                return BlackholeTickAccess.emptyLevelList();
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "BenchmarkLevel";
+        }
+
+        if (method.isDefault()) {
+            return InvocationHandler.invokeDefault(proxy, method, args);
+        }
+
+        throw new UnsupportedOperationException("BenchmarkLevel does not support " + method);
+    }
+
+    /**
+     * Supplies the initial block at each position of a {@link BenchmarkLevel}.
+     */
+    @FunctionalInterface
+    public interface Terrain {
+        BlockState getBlockState(int x, int y, int z);
+
+        /**
+         * Solid stone up to y = 63 with air above.
+         */
+        static Terrain solidStone() {
+            BlockState stone = Blocks.STONE.defaultBlockState();
+            BlockState air = Blocks.AIR.defaultBlockState();
+            return (x, y, z) -> y < 64 ? stone : air;
+        }
+
+        /**
+         * Stone up to y = 63, hollowed out by a deterministic scatter of air and water pockets and a band of open cave
+         * between y = -30 and y = -20. This makes the liquid, air and leg-scan branches of the piece helpers actually run.
+         */
+        static Terrain caves(long seed) {
+            BlockState stone = Blocks.STONE.defaultBlockState();
+            BlockState deepslate = Blocks.DEEPSLATE.defaultBlockState();
+            BlockState air = Blocks.AIR.defaultBlockState();
+            BlockState caveAir = Blocks.CAVE_AIR.defaultBlockState();
+            BlockState water = Blocks.WATER.defaultBlockState();
+            return (x, y, z) -> {
+                if (y >= 64) return air;
+                if (y >= -30 && y < -20) return caveAir;
+                long h = seed ^ (x * 3129871L) ^ (z * 116129781L) ^ ((long) y * 42317861L);
+                h = h * h * 42317861L + h * 11L;
+                int roll = (int) ((h >>> 16) & 0xFF);
+                if (roll < 24) return caveAir;
+                if (roll < 32) return water;
+                return y < 0 ? deepslate : stone;
+            };
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.yungnickyoung.minecraft.bettermineshafts.benchmark;
+
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BlockStateSampler;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces.BetterMineshaftPiece;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.StructureFeatureManager;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import java.util.Random;
+
+/**
+ * Bare piece that exposes the protected {@link BetterMineshaftPiece} helpers to the benchmarks.
+ * It is never registered or serialized, so it has no piece type.
+ */
+public class BenchmarkPiece extends BetterMineshaftPiece {
+    public BenchmarkPiece(BetterMineshaftFeatureConfiguration config, BoundingBox boundingBox, Direction direction) {
+        super(null, 0, config, boundingBox);
+        this.setOrientation(direction);
+    }
+
+    @Override
+    protected void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig) {
+    }
+
+    public void fillState(WorldGenLevel world, BoundingBox box, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState) {
+        this.fill(world, box, minX, minY, minZ, maxX, maxY, maxZ, blockState);
+    }
+
+    public void fillRandomized(WorldGenLevel world, BoundingBox box, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateSampler selector) {
+        this.fill(world, box, random, minX, minY, minZ, maxX, maxY, maxZ, selector);
+    }
+
+    public void replaceAirOrChainsState(WorldGenLevel world, BoundingBox box, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState) {
+        this.replaceAirOrChains(world, box, minX, minY, minZ, maxX, maxY, maxZ, blockState);
+    }
+
+    public void replaceAirOrChainsRandomized(WorldGenLevel world, BoundingBox box, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateSampler selector) {
+        this.replaceAirOrChains(world, box, random, minX, minY, minZ, maxX, maxY, maxZ, selector);
+    }
+
+    public void chanceReplaceNonAirRandomized(WorldGenLevel world, BoundingBox box, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateSampler selector) {
+        this.chanceReplaceNonAir(world, box, random, chance, minX, minY, minZ, maxX, maxY, maxZ, selector);
+    }
+
+    public void chanceReplaceSolidState(WorldGenLevel world, BoundingBox box, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState) {
+        this.chanceReplaceSolid(world, box, random, chance, minX, minY, minZ, maxX, maxY, maxZ, blockState);
+    }
+
+    public void biomeDecorations(WorldGenLevel world, BoundingBox box, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.addBiomeDecorations(world, box, random, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+}
@@ -0,0 +1,60 @@
+package com.yungnickyoung.minecraft.bettermineshafts.benchmark;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.JsonOps;
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Shared setup for the benchmarks: bootstraps the vanilla registries and decodes the biome variant configs
+ * straight from the mod's configured structure feature JSONs, so benchmarks always run against the shipped data.
+ */
+public final class BenchmarkSupport {
+    /** Every biome variant shipped in data/bettermineshafts/worldgen/configured_structure_feature. */
+    public static final String[] VARIANTS = {
+            "acacia", "desert", "dripstone", "forest", "ice", "jungle", "lush",
+            "mesa", "mushroom", "oak", "red_desert", "spruce", "spruce_snowy"
+    };
+
+    private static boolean bootstrapped = false;
+
+    private BenchmarkSupport() {
+    }
+
+    public static synchronized void bootstrap() {
+        if (!bootstrapped) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            bootstrapped = true;
+        }
+    }
+
+    /**
+     * Decodes the config of the mineshaft_{variant} configured structure feature.
+     * Each call returns a fresh instance, so callers are free to tweak it.
+     */
+    public static BetterMineshaftFeatureConfiguration loadConfig(String variant) {
+        bootstrap();
+        String path = "/data/bettermineshafts/worldgen/configured_structure_feature/mineshaft_" + variant + ".json";
+        InputStream stream = BenchmarkSupport.class.getResourceAsStream(path);
+        if (stream == null) {
+            throw new IllegalArgumentException("Unknown mineshaft variant " + variant);
+        }
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            JsonElement config = JsonParser.parseReader(reader).getAsJsonObject().get("config");
+            return BetterMineshaftFeatureConfiguration.CODEC.parse(JsonOps.INSTANCE, config)
+                    .getOrThrow(false, error -> {});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.yungnickyoung.minecraft.bettermineshafts.benchmark;
+
+import com.yungnickyoung.minecraft.bettermineshafts.world.BetterMineshaftStructureFeature;
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.LegacyRandomSource;
+import net.minecraft.world.level.levelgen.WorldgenRandom;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.level.levelgen.structure.StructurePiece;
+import net.minecraft.world.level.levelgen.structure.pieces.PieceGenerator;
+import net.minecraft.world.level.levelgen.structure.pieces.PiecesContainer;
+import net.minecraft.world.level.levelgen.structure.pieces.StructurePiecesBuilder;
+
+import java.util.List;
+
+/**
+ * Runs a whole mineshaft without a server: lays it out with {@link BetterMineshaftStructureFeature#generatePieces}
+ * and then calls postProcess chunk by chunk, the way StructureStart#placeInChunk does during world generation.
+ */
+public final class HeadlessMineshaft {
+    private HeadlessMineshaft() {
+    }
+
+    /**
+     * Lays out the mineshaft starting in the given chunk. No blocks are placed.
+     */
+    public static PiecesContainer layout(BetterMineshaftFeatureConfiguration config, long seed, ChunkPos chunkPos) {
+        WorldgenRandom random = new WorldgenRandom(new LegacyRandomSource(0L));
+        random.setLargeFeatureSeed(seed, chunkPos.x, chunkPos.z);
+        StructurePiecesBuilder builder = new StructurePiecesBuilder();
+        BetterMineshaftStructureFeature.generatePieces(builder, new PieceGenerator.Context<>(config, null, null, chunkPos, BenchmarkLevel.heightAccessor(), random, seed));
+        return builder.build();
+    }
+
+    /**
+     * Creates every chunk the mineshaft can touch up front, so terrain generation never shows up in piece timings.
+     */
+    public static void prepareChunks(BenchmarkLevel level, PiecesContainer pieces) {
+        BoundingBox box = pieces.calculateBoundingBox();
+        for (int chunkX = (box.minX() >> 4) - 1; chunkX <= (box.maxX() >> 4) + 1; chunkX++) {
+            for (int chunkZ = (box.minZ() >> 4) - 1; chunkZ <= (box.maxZ() >> 4) + 1; chunkZ++) {
+                level.getChunk(chunkX, chunkZ);
+            }
+        }
+    }
+
+    /**
+     * Places the mineshaft into the level one chunk at a time, calling the listener after every piece's postProcess.
+     */
+    public static void place(BenchmarkLevel level, PiecesContainer pieces, long seed, PostProcessListener listener) {
+        if (pieces.pieces().isEmpty()) return;
+
+        BoundingBox box = pieces.calculateBoundingBox();
+        WorldgenRandom random = new WorldgenRandom(new LegacyRandomSource(0L));
+        for (int chunkX = box.minX() >> 4; chunkX <= box.maxX() >> 4; chunkX++) {
+            for (int chunkZ = box.minZ() >> 4; chunkZ <= box.maxZ() >> 4; chunkZ++) {
+                placeChunk(level, pieces, seed, new ChunkPos(chunkX, chunkZ), random, listener);
+            }
+        }
+    }
+
+    /**
+     * Places the parts of the mineshaft inside a single chunk, the way one StructureStart#placeInChunk call does.
+     */
+    public static void placeChunk(BenchmarkLevel level, PiecesContainer pieces, long seed, ChunkPos chunkPos, WorldgenRandom random, PostProcessListener listener) {
+        List<StructurePiece> pieceList = pieces.pieces();
+        if (pieceList.isEmpty()) return;
+
+        BlockPos pivot = pieceList.get(0).getBoundingBox().getCenter();
+        BoundingBox chunkBox = new BoundingBox(
+                chunkPos.getMinBlockX(), BenchmarkLevel.MIN_BUILD_HEIGHT, chunkPos.getMinBlockZ(),
+                chunkPos.getMaxBlockX(), BenchmarkLevel.MIN_BUILD_HEIGHT + BenchmarkLevel.HEIGHT - 1, chunkPos.getMaxBlockZ());
+        random.setDecorationSeed(seed, chunkPos.getMinBlockX(), chunkPos.getMinBlockZ());
+
+        for (StructurePiece piece : pieceList) {
+            if (piece.getBoundingBox().intersects(chunkBox)) {
+                listener.beforePostProcess();
+                piece.postProcess(level.level(), null, null, random, chunkBox, chunkPos, pivot);
+                listener.afterPostProcess(piece);
+            }
+        }
+    }
+
+    public interface PostProcessListener {
+        PostProcessListener NONE = new PostProcessListener() {
+            @Override
+            public void beforePostProcess() {
+            }
+
+            @Override
+            public void afterPostProcess(StructurePiece piece) {
+            }
+        };
+
+        void beforePostProcess();
+
+        void afterPostProcess(StructurePiece piece);
+    }
+}
@@ -0,0 +1,94 @@
+package com.yungnickyoung.minecraft.bettermineshafts.benchmark;
+
+import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.FastPieceRandom;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.LegacyRandomSource;
+import net.minecraft.world.level.levelgen.WorldgenRandom;
+import net.minecraft.world.level.levelgen.structure.pieces.PiecesContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures laying out and placing one whole mineshaft, and placing the single chunk a mineshaft starts in.
+ * Every invocation uses a new seed and start chunk.
+ * Run with both values of fastRng to compare the regular random against the per-piece {@link FastPieceRandom}.
+ * For a per-piece breakdown use {@link MineshaftGenerationProfiler} instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MineshaftGenerationBenchmark {
+    @Param({"oak", "mesa", "ice", "jungle"})
+    public String variant;
+
+    @Param({"false", "true"})
+    public boolean fastRng;
+
+    private BetterMineshaftFeatureConfiguration config;
+    private BenchmarkLevel level;
+    private Random seeds;
+    private long seed;
+    private PiecesContainer pieces;
+    private ChunkPos startChunk;
+    private WorldgenRandom chunkRandom;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        BenchmarkSupport.bootstrap();
+        this.config = BenchmarkSupport.loadConfig(this.variant);
+        this.config.decorationChances.lushDecorations = false;
+        this.config.decorationChances.dripstoneDecorations = false;
+        this.level = new BenchmarkLevel(BenchmarkLevel.Terrain.caves(99L));
+        this.seeds = new Random(99L);
+        this.chunkRandom = new WorldgenRandom(new LegacyRandomSource(0L));
+        ConfigModule defaults = ConfigModule.DEFAULT;
+        BetterMineshaftsCommon.CONFIG = new ConfigModule(
+                defaults.mineshaftSpawnRate(),
+                defaults.minY(),
+                defaults.maxY(),
+                defaults.disableVanillaMineshafts(),
+                defaults.legacySpawnRoll(),
+                this.fastRng,
+                defaults.statsLogInterval(),
+                defaults.ores(),
+                defaults.spawnRates());
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        this.seed = this.seeds.nextLong();
+        ChunkPos chunkPos = new ChunkPos(this.seeds.nextInt(1250) - 625, this.seeds.nextInt(1250) - 625);
+        this.pieces = HeadlessMineshaft.layout(this.config, this.seed, chunkPos);
+        this.startChunk = chunkPos;
+        this.level.clear();
+        HeadlessMineshaft.prepareChunks(this.level, this.pieces);
+    }
+
+    @Benchmark
+    public PiecesContainer layout() {
+        return HeadlessMineshaft.layout(this.config, this.seed, new ChunkPos(0, 0));
+    }
+
+    @Benchmark
+    public void place() {
+        HeadlessMineshaft.place(this.level, this.pieces, this.seed, HeadlessMineshaft.PostProcessListener.NONE);
+    }
+
+    @Benchmark
+    public void placeStartChunk() {
+        HeadlessMineshaft.placeChunk(this.level, this.pieces, this.seed, this.startChunk, this.chunkRandom, HeadlessMineshaft.PostProcessListener.NONE);
+    }
+}
@@ -0,0 +1,147 @@
+package com.yungnickyoung.minecraft.bettermineshafts.benchmark;
+
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.structure.StructurePiece;
+import net.minecraft.world.level.levelgen.structure.pieces.PiecesContainer;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates many whole mineshafts headlessly and reports where the time and allocations go, per piece type.
+ * <p>
+ * Run with {@code ./gradlew :Benchmarks:profileMineshafts}, optionally passing
+ * {@code -Pseeds=<count>} and {@code -Pvariants=oak,mesa,...}.
+ * The first tenth of the runs is treated as warmup and left out of the report.
+ */
+public final class MineshaftGenerationProfiler {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Map<String, PieceStats> statsByPiece = new LinkedHashMap<>();
+    private long layoutNanos;
+    private long layoutBytes;
+    private long starts;
+    private long pieces;
+
+    public static void main(String[] args) {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        String[] variants = args.length > 1 ? args[1].split(",") : BenchmarkSupport.VARIANTS;
+
+        BenchmarkSupport.bootstrap();
+        MineshaftGenerationProfiler profiler = new MineshaftGenerationProfiler();
+        profiler.run(seeds, variants);
+        profiler.report(System.out);
+    }
+
+    private void run(int seeds, String[] variants) {
+        List<BetterMineshaftFeatureConfiguration> configs = new ArrayList<>();
+        for (String variant : variants) {
+            BetterMineshaftFeatureConfiguration config = BenchmarkSupport.loadConfig(variant);
+            // Lush and dripstone features need a server level chunk generator, which the benchmark level can't provide
+            config.decorationChances.lushDecorations = false;
+            config.decorationChances.dripstoneDecorations = false;
+            configs.add(config);
+        }
+
+        Random random = new Random(1234L);
+        BenchmarkLevel level = new BenchmarkLevel(BenchmarkLevel.Terrain.caves(1234L));
+        int warmup = seeds / 10;
+
+        for (int i = 0; i < seeds + warmup; i++) {
+            boolean record = i >= warmup;
+            long seed = random.nextLong();
+            ChunkPos chunkPos = new ChunkPos(random.nextInt(1250) - 625, random.nextInt(1250) - 625);
+            BetterMineshaftFeatureConfiguration config = configs.get(i % configs.size());
+
+            long bytesBefore = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            PiecesContainer container = HeadlessMineshaft.layout(config, seed, chunkPos);
+            long elapsed = System.nanoTime() - start;
+            long allocated = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - bytesBefore;
+
+            level.clear();
+            HeadlessMineshaft.prepareChunks(level, container);
+            Recorder recorder = new Recorder(record);
+            HeadlessMineshaft.place(level, container, seed, recorder);
+
+            if (record) {
+                this.layoutNanos += elapsed;
+                this.layoutBytes += allocated;
+                this.starts++;
+                this.pieces += container.pieces().size();
+                for (StructurePiece piece : container.pieces()) {
+                    this.statsFor(piece).pieces++;
+                }
+            }
+        }
+    }
+
+    private PieceStats statsFor(StructurePiece piece) {
+        return this.statsByPiece.computeIfAbsent(piece.getClass().getSimpleName(), name -> new PieceStats());
+    }
+
+    private void report(java.io.PrintStream out) {
+        out.printf(Locale.ROOT, "%d mineshafts, %d pieces (%.1f per mineshaft)%n", this.starts, this.pieces, (double) this.pieces / Math.max(1, this.starts));
+        out.printf(Locale.ROOT, "layout: %.1f us and %.1f KB per mineshaft%n%n", this.layoutNanos / 1e3 / Math.max(1, this.starts), this.layoutBytes / 1024.0 / Math.max(1, this.starts));
+        out.printf(Locale.ROOT, "%-22s %8s %10s %12s %12s %12s %12s %7s%n",
+                "piece", "pieces", "calls", "ns/call", "ns/piece", "B/call", "B/piece", "time%");
+
+        long totalNanos = this.statsByPiece.values().stream().mapToLong(stats -> stats.nanos).sum();
+        this.statsByPiece.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, PieceStats> entry) -> entry.getValue().nanos).reversed())
+                .forEach(entry -> {
+                    PieceStats stats = entry.getValue();
+                    out.printf(Locale.ROOT, "%-22s %8d %10d %12.0f %12.0f %12.0f %12.0f %6.1f%%%n",
+                            entry.getKey(),
+                            stats.pieces,
+                            stats.calls,
+                            (double) stats.nanos / Math.max(1, stats.calls),
+                            (double) stats.nanos / Math.max(1, stats.pieces),
+                            (double) stats.bytes / Math.max(1, stats.calls),
+                            (double) stats.bytes / Math.max(1, stats.pieces),
+                            100.0 * stats.nanos / Math.max(1, totalNanos));
+                });
+    }
+
+    private static class PieceStats {
+        long pieces;
+        long calls;
+        long nanos;
+        long bytes;
+    }
+
+    private class Recorder implements HeadlessMineshaft.PostProcessListener {
+        private final boolean record;
+        private long startNanos;
+        private long startBytes;
+
+        Recorder(boolean record) {
+            this.record = record;
+        }
+
+        @Override
+        public void beforePostProcess() {
+            this.startBytes = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void afterPostProcess(StructurePiece piece) {
+            long nanos = System.nanoTime() - this.startNanos;
+            long bytes = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - this.startBytes;
+            if (this.record) {
+                PieceStats stats = statsFor(piece);
+                stats.calls++;
+                stats.nanos += nanos;
+                stats.bytes += bytes;
+            }
+        }
+    }
+}
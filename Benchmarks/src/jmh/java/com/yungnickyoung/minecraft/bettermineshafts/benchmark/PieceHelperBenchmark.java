@@ -0,0 +1,111 @@
+package com.yungnickyoung.minecraft.bettermineshafts.benchmark;
+
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces.BigTunnel;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces.BetterMineshaftPiece}
+ * fill and replace helpers over a region the size of a {@link BigTunnel}, using the same local coordinates
+ * BigTunnel passes to them. The region is restored from the terrain before every invocation so each call
+ * sees the same blocks.
+ * <p>
+ * Run with {@code ./gradlew :Benchmarks:jmh -PjmhIncludes=PieceHelperBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PieceHelperBenchmark {
+    private static final int X_END = 8, Y_END = 7, Z_END = 23;
+
+    @Param({"oak", "lush", "mesa", "ice", "desert", "jungle", "mushroom", "spruce_snowy", "dripstone"})
+    public String variant;
+
+    @Param({"NORTH", "EAST"})
+    public Direction direction;
+
+    private BenchmarkLevel benchmarkLevel;
+    private WorldGenLevel world;
+    private BenchmarkPiece piece;
+    private BetterMineshaftFeatureConfiguration config;
+    private BoundingBox box;
+    private BoundingBox resetBox;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        BenchmarkSupport.bootstrap();
+        this.config = BenchmarkSupport.loadConfig(this.variant);
+
+        // Lush and dripstone decorations place configured features through the server level's chunk generator,
+        // which the in-memory level cannot provide. Everything else in addBiomeDecorations still runs.
+        this.config.decorationChances.lushDecorations = false;
+        this.config.decorationChances.dripstoneDecorations = false;
+
+        this.benchmarkLevel = new BenchmarkLevel(BenchmarkLevel.Terrain.caves(this.variant.hashCode()));
+        this.world = this.benchmarkLevel.level();
+        this.box = BigTunnel.determineBoxPosition(4, 10, 4, this.direction);
+        this.piece = new BenchmarkPiece(this.config, this.box, this.direction);
+
+        // Vines and decorations look one block past the piece, so restore a slightly larger area
+        this.resetBox = new BoundingBox(this.box.minX() - 1, this.box.minY() - 1, this.box.minZ() - 1, this.box.maxX() + 1, this.box.maxY() + 1, this.box.maxZ() + 1);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        this.benchmarkLevel.resetRegion(this.resetBox);
+        this.random = new Random(42L);
+    }
+
+    @Benchmark
+    public void fillAir() {
+        this.piece.fillState(this.world, this.box, 1, 1, 0, X_END - 1, Y_END - 1, Z_END, Blocks.CAVE_AIR.defaultBlockState());
+    }
+
+    @Benchmark
+    public void fillRandomized() {
+        this.piece.fillRandomized(this.world, this.box, this.random, 1, 0, 0, X_END - 1, 0, Z_END, this.config.blockStateSamplers.floorSampler);
+    }
+
+    @Benchmark
+    public void replaceAirOrChains() {
+        BlockState mainBlock = this.config.blockStates.mainBlockState;
+        this.piece.replaceAirOrChainsState(this.world, this.box, 0, 0, 0, X_END, Y_END, Z_END, mainBlock);
+    }
+
+    @Benchmark
+    public void replaceAirOrChainsRandomized() {
+        this.piece.replaceAirOrChainsRandomized(this.world, this.box, this.random, 0, 0, 0, X_END, Y_END, Z_END, this.config.blockStateSamplers.brickSampler);
+    }
+
+    @Benchmark
+    public void chanceReplaceNonAir() {
+        this.piece.chanceReplaceNonAirRandomized(this.world, this.box, this.random, this.config.replacementRate, 0, 0, 0, X_END, Y_END, Z_END, this.config.blockStateSamplers.mainSampler);
+    }
+
+    @Benchmark
+    public void chanceReplaceSolid() {
+        this.piece.chanceReplaceSolidState(this.world, this.box, this.random, .1f, 0, 0, 0, X_END, Y_END, Z_END, this.config.blockStates.gravelBlockState);
+    }
+
+    @Benchmark
+    public void addBiomeDecorations() {
+        this.piece.biomeDecorations(this.world, this.box, this.random, 1, 1, 0, X_END - 1, Y_END - 1, Z_END);
+    }
+}
@@ -0,0 +1,58 @@
+package com.yungnickyoung.minecraft.bettermineshafts.mixin;
+
+import com.mojang.datafixers.util.Pair;
+import com.yungnickyoung.minecraft.bettermineshafts.world.MineshaftStructurePlacement;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderSet;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.levelgen.feature.ConfiguredStructureFeature;
+import net.minecraft.world.level.levelgen.structure.StructureSet;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Vanilla only knows how to search concentric_rings and random_spread placements when locating structures,
+ * so /locate and explorer maps are taught to search mineshaft_start placements too.
+ */
+@Mixin(ChunkGenerator.class)
+public abstract class LocateMineshaftStartMixin {
+    @Shadow
+    protected abstract Stream<Holder<StructureSet>> possibleStructureSets();
+
+    @Inject(method = "findNearestMapFeature", at = @At("RETURN"), cancellable = true)
+    private void findNearestMineshaftStart(ServerLevel level,
+                                           HolderSet<ConfiguredStructureFeature<?, ?>> features,
+                                           BlockPos pos,
+                                           int searchRadius,
+                                           boolean skipKnown,
+                                           CallbackInfoReturnable<Pair<BlockPos, Holder<ConfiguredStructureFeature<?, ?>>>> cir) {
+        Set<Holder<ConfiguredStructureFeature<?, ?>>> placedFeatures = new LinkedHashSet<>();
+        this.possibleStructureSets()
+                .map(Holder::value)
+                .filter(structureSet -> structureSet.placement() instanceof MineshaftStructurePlacement)
+                .flatMap(structureSet -> structureSet.structures().stream())
+                .forEach(entry -> {
+                    for (Holder<ConfiguredStructureFeature<?, ?>> feature : features) {
+                        if (feature.value() == entry.structure().value()) {
+                            placedFeatures.add(feature);
+                        }
+                    }
+                });
+        if (placedFeatures.isEmpty()) return;
+
+        Pair<BlockPos, Holder<ConfiguredStructureFeature<?, ?>>> found = MineshaftStructurePlacement.INSTANCE.findNearest(level, placedFeatures, pos, searchRadius, skipKnown);
+        Pair<BlockPos, Holder<ConfiguredStructureFeature<?, ?>>> vanillaFound = cir.getReturnValue();
+        if (found != null && (vanillaFound == null || found.getFirst().distSqr(pos) < vanillaFound.getFirst().distSqr(pos))) {
+            cir.setReturnValue(found);
+        }
+    }
+}
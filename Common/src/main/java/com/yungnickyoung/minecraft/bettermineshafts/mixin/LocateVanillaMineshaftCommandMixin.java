@@ -30,7 +30,7 @@ public class LocateVanillaMineshaftCommandMixin {
                                                      ResourceOrTagLocationArgument.Result<ConfiguredStructureFeature<?, ?>> result,
                                                      CallbackInfoReturnable<Integer> ci) throws CommandSyntaxException {
         Optional<ResourceKey<ConfiguredStructureFeature<?, ?>>> optional = result.unwrap().left();
-        if (BetterMineshaftsCommon.CONFIG.disableVanillaMineshafts && optional.isPresent() && optional.get().location().equals(new ResourceLocation("mineshaft"))) {
+        if (BetterMineshaftsCommon.CONFIG.disableVanillaMineshafts() && optional.isPresent() && optional.get().location().equals(new ResourceLocation("mineshaft"))) {
             throw OLD_MINESHAFT_EXCEPTION.create();
         }
     }
@@ -0,0 +1,31 @@
+package com.yungnickyoung.minecraft.bettermineshafts.module;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.world.MineshaftMetrics;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.TextComponent;
+
+public class CommandModule {
+    /**
+     * Registers {@code /bettermineshafts stats} and {@code /bettermineshafts stats reset}.
+     */
+    public static void registerCommands(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal(BetterMineshaftsCommon.MOD_ID)
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("stats")
+                        .executes(context -> {
+                            for (String line : MineshaftMetrics.report()) {
+                                context.getSource().sendSuccess(new TextComponent(line), false);
+                            }
+                            return 1;
+                        })
+                        .then(Commands.literal("reset")
+                                .executes(context -> {
+                                    MineshaftMetrics.reset();
+                                    context.getSource().sendSuccess(new TextComponent("Mineshaft stats reset"), true);
+                                    return 1;
+                                }))));
+    }
+}
@@ -1,41 +1,54 @@
 package com.yungnickyoung.minecraft.bettermineshafts.module;
 
-public class ConfigModule {
-    public double mineshaftSpawnRate = 0.003;
-    public int minY = -55;
-    public int maxY = 30;
-    public boolean disableVanillaMineshafts = true;
-    public final Ores ores = new Ores();
-    public final SpawnRates spawnRates = new SpawnRates();
+/**
+ * An immutable snapshot of the mod's config.
+ * Each platform's config module bakes a new snapshot whenever its config loads or changes
+ * and publishes it through {@link com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon#CONFIG},
+ * so worldgen threads always see one complete config, never a mix of old and new values.
+ */
+public record ConfigModule(double mineshaftSpawnRate,
+                           int minY,
+                           int maxY,
+                           boolean disableVanillaMineshafts,
+                           boolean legacySpawnRoll,
+                           boolean fastRng,
+                           int statsLogInterval,
+                           Ores ores,
+                           SpawnRates spawnRates) {
+    /** Used until the platform config is baked. */
+    public static final ConfigModule DEFAULT = new ConfigModule(
+            0.003,
+            -55,
+            30,
+            true,
+            true,
+            false,
+            0,
+            new Ores(true, 50, 20, 9, 7, 7, 3, 3, 1),
+            new SpawnRates(0.0067, 0.02, 0.025, 0.25, 0.07, 0.15, 0.00125, 0.0025, 0.01, 0.0025, 2, 9));
 
-    public static class Ores {
-        public boolean enabled = true;
-        public int cobble = 50;
-        public int coal = 20;
-        public int iron = 9;
-        public int redstone = 7;
-        public int gold = 7;
-        public int lapis = 3;
-        public int emerald = 3;
-        public int diamond = 1;
-
-        public Ores() {}
+    public record Ores(boolean enabled,
+                       int cobble,
+                       int coal,
+                       int iron,
+                       int redstone,
+                       int gold,
+                       int lapis,
+                       int emerald,
+                       int diamond) {
     }
 
-    public static class SpawnRates {
-        public double lanternSpawnRate = 0.0067;
-        public double torchSpawnRate = 0.02;
-        public double workstationSpawnRate = 0.025;
-        public double workstationDungeonSpawnRate = 0.25;
-        public double smallShaftSpawnRate = 0.07;
-        public double cobwebSpawnRate = 0.15;
-        public double smallShaftChestMinecartSpawnRate = 0.00125;
-        public double smallShaftTntMinecartSpawnRate = 0.0025;
-        public double mainShaftChestMinecartSpawnRate = 0.01;
-        public double mainShaftTntMinecartSpawnRate = 0.0025;
-        public int zombieVillagerRoomSpawnRate = 2;
-        public int smallShaftPieceChainLength = 9;
-
-        public SpawnRates() {}
+    public record SpawnRates(double lanternSpawnRate,
+                             double torchSpawnRate,
+                             double workstationSpawnRate,
+                             double workstationDungeonSpawnRate,
+                             double smallShaftSpawnRate,
+                             double cobwebSpawnRate,
+                             double smallShaftChestMinecartSpawnRate,
+                             double smallShaftTntMinecartSpawnRate,
+                             double mainShaftChestMinecartSpawnRate,
+                             double mainShaftTntMinecartSpawnRate,
+                             int zombieVillagerRoomSpawnRate,
+                             int smallShaftPieceChainLength) {
     }
 }
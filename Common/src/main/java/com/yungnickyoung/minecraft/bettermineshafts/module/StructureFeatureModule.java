@@ -1,10 +1,13 @@
 package com.yungnickyoung.minecraft.bettermineshafts.module;
 
 import com.yungnickyoung.minecraft.bettermineshafts.world.BetterMineshaftStructureFeature;
+import com.yungnickyoung.minecraft.bettermineshafts.world.BetterMineshaftVariantsStructureFeature;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.MineshaftVariantsConfiguration;
 import net.minecraft.world.level.levelgen.feature.StructureFeature;
 import net.minecraft.world.level.levelgen.feature.configurations.NoneFeatureConfiguration;
 
 public class StructureFeatureModule {
     public static StructureFeature<BetterMineshaftFeatureConfiguration> BETTER_MINESHAFT = new BetterMineshaftStructureFeature();
+    public static StructureFeature<MineshaftVariantsConfiguration> BETTER_MINESHAFT_VARIANTS = new BetterMineshaftVariantsStructureFeature();
 }
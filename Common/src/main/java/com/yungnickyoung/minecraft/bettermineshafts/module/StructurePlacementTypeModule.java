@@ -0,0 +1,8 @@
+package com.yungnickyoung.minecraft.bettermineshafts.module;
+
+import com.yungnickyoung.minecraft.bettermineshafts.world.MineshaftStructurePlacement;
+import net.minecraft.world.level.levelgen.structure.placement.StructurePlacementType;
+
+public class StructurePlacementTypeModule {
+    public static StructurePlacementType<MineshaftStructurePlacement> MINESHAFT_START = () -> MineshaftStructurePlacement.CODEC;
+}
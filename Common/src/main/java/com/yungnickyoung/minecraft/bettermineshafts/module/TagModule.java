@@ -2,7 +2,9 @@ package com.yungnickyoung.minecraft.bettermineshafts.module;
 
 import net.minecraft.tags.TagKey;
 import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.Block;
 
 public class TagModule {
     public static TagKey<Biome> HAS_BETTER_MINESHAFT;
+    public static TagKey<Block> REPLACEABLE_BY_MINESHAFT;
 }
@@ -2,13 +2,17 @@ package com.yungnickyoung.minecraft.bettermineshafts.world;
 
 import com.mojang.serialization.Codec;
 import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
-import com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces.BetterMineshaftPiece;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.MineshaftPieceAccessor;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.SurfaceHeightSampler;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces.VerticalEntrance;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.core.Holder;
 import net.minecraft.core.QuartPos;
 import net.minecraft.util.StringRepresentable;
+import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.levelgen.GenerationStep;
 import net.minecraft.world.level.levelgen.LegacyRandomSource;
 import net.minecraft.world.level.levelgen.WorldgenRandom;
@@ -40,28 +44,41 @@ public class BetterMineshaftStructureFeature extends StructureFeature<BetterMine
     }
 
     private static boolean checkLocation(PieceGeneratorSupplier.Context<BetterMineshaftFeatureConfiguration> context) {
-        WorldgenRandom worldgenRandom = new WorldgenRandom(new LegacyRandomSource(0L));
-        worldgenRandom.setLargeFeatureSeed(context.seed(), context.chunkPos().x, context.chunkPos().z);
-        return worldgenRandom.nextDouble() < BetterMineshaftsCommon.CONFIG.mineshaftSpawnRate &&
-                context.validBiome().test(context.chunkGenerator().getNoiseBiome(
-                        QuartPos.fromBlock(context.chunkPos().getMiddleBlockX()),
-                        QuartPos.fromBlock(50),
-                        QuartPos.fromBlock(context.chunkPos().getMiddleBlockZ()))
-                );
+        MineshaftMetrics.STARTS_ATTEMPTED.increment();
+
+        // The mineshaft_start placement only sends start chunks here, but a data pack may use a placement that sends every chunk,
+        // so the cheap spawn rate roll still comes first and biome sampling only happens on a hit
+        boolean accepted = MineshaftStartRoll.isStartChunk(context.seed(), context.chunkPos().x, context.chunkPos().z) &&
+                context.validBiome().test(getStartBiome(context));
+        if (accepted) {
+            MineshaftMetrics.STARTS_ACCEPTED.increment();
+        }
+        return accepted;
+    }
+
+    /**
+     * Returns the biome a start in the context's chunk is checked against.
+     */
+    public static Holder<Biome> getStartBiome(PieceGeneratorSupplier.Context<?> context) {
+        return context.chunkGenerator().getNoiseBiome(
+                QuartPos.fromBlock(context.chunkPos().getMiddleBlockX()),
+                QuartPos.fromBlock(50),
+                QuartPos.fromBlock(context.chunkPos().getMiddleBlockZ()));
     }
 
-    private static void generatePieces(StructurePiecesBuilder structurePiecesBuilder, PieceGenerator.Context<BetterMineshaftFeatureConfiguration> context) {
+    public static void generatePieces(StructurePiecesBuilder structurePiecesBuilder, PieceGenerator.Context<BetterMineshaftFeatureConfiguration> context) {
         // Randomly choose starting direction.
         WorldgenRandom rand = new WorldgenRandom(new LegacyRandomSource(0));
         rand.setLargeFeatureSeed(context.seed(), context.chunkPos().x, context.chunkPos().z);
         Direction direction = Direction.Plane.HORIZONTAL.getRandomDirection(rand);
 
         // Choose random y
-        int y = context.random().nextInt(BetterMineshaftsCommon.CONFIG.maxY - BetterMineshaftsCommon.CONFIG.minY + 1) + BetterMineshaftsCommon.CONFIG.minY;
+        ConfigModule modConfig = BetterMineshaftsCommon.CONFIG;
+        int y = context.random().nextInt(modConfig.maxY() - modConfig.minY() + 1) + modConfig.minY();
         BlockPos.MutableBlockPos startingPos = new BlockPos.MutableBlockPos(context.chunkPos().getBlockX(3), y, context.chunkPos().getBlockZ(3));
 
         // Entrypoint
-        BetterMineshaftPiece entryPoint = new VerticalEntrance(
+        VerticalEntrance entryPoint = new VerticalEntrance(
                 -1,
                 startingPos,
                 direction,
@@ -69,11 +86,19 @@ public class BetterMineshaftStructureFeature extends StructureFeature<BetterMine
                 context.heightAccessor().getMaxBuildHeight()
         );
 
-        structurePiecesBuilder.addPiece(entryPoint);
+        // Collision checks during layout go through a grid index instead of scanning every piece in the builder
+        MineshaftPieceAccessor pieceAccessor = new MineshaftPieceAccessor(structurePiecesBuilder);
+        pieceAccessor.addPiece(entryPoint);
 
         // Build room component. This also populates the children list, effectively building the entire mineshaft.
         // Note that no blocks are actually placed yet.
-        entryPoint.addChildren(entryPoint, structurePiecesBuilder, context.random());
+        entryPoint.addChildren(entryPoint, pieceAccessor, context.random());
+
+        // Decide the entrance's surface tunnel from the terrain noise, so it is sized correctly before any chunk generates it.
+        // Without a chunk generator (e.g. headless layouts) it is decided from the world when the entrance first generates.
+        if (context.chunkGenerator() != null) {
+            entryPoint.planSurfaceTunnel(SurfaceHeightSampler.ofChunkGenerator(context.chunkGenerator(), context.heightAccessor()));
+        }
     }
 
     public enum LegVariant implements StringRepresentable {
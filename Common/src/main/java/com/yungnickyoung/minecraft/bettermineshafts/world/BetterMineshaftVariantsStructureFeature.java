@@ -0,0 +1,56 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world;
+
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.MineshaftVariantsConfiguration;
+import net.minecraft.core.Holder;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.levelgen.GenerationStep;
+import net.minecraft.world.level.levelgen.feature.StructureFeature;
+import net.minecraft.world.level.levelgen.structure.pieces.PieceGenerator;
+import net.minecraft.world.level.levelgen.structure.pieces.PieceGeneratorSupplier;
+
+import java.util.Optional;
+
+/**
+ * A single mineshaft structure covering every biome variant.
+ * Each chunk rolls for a start once and samples its biome once, then lays out the variant for that biome.
+ * With one configured feature per variant in the structure set, vanilla would instead retry every variant
+ * in turn until one accepted the chunk, repeating the same roll each time.
+ */
+public class BetterMineshaftVariantsStructureFeature extends StructureFeature<MineshaftVariantsConfiguration> {
+    public BetterMineshaftVariantsStructureFeature() {
+        super(MineshaftVariantsConfiguration.CODEC, context -> {
+            MineshaftMetrics.STARTS_ATTEMPTED.increment();
+
+            // Only generate if location is valid
+            if (!MineshaftStartRoll.isStartChunk(context.seed(), context.chunkPos().x, context.chunkPos().z)) {
+                return Optional.empty();
+            }
+            Holder<Biome> biome = BetterMineshaftStructureFeature.getStartBiome(context);
+            if (!context.validBiome().test(biome)) {
+                return Optional.empty();
+            }
+            BetterMineshaftFeatureConfiguration variant = context.config().getVariant(biome);
+            if (variant == null) {
+                return Optional.empty();
+            }
+
+            MineshaftMetrics.STARTS_ACCEPTED.increment();
+            return Optional.of((structurePiecesBuilder, generatorContext) -> BetterMineshaftStructureFeature.generatePieces(
+                    structurePiecesBuilder,
+                    new PieceGenerator.Context<>(
+                            variant,
+                            generatorContext.chunkGenerator(),
+                            generatorContext.structureManager(),
+                            generatorContext.chunkPos(),
+                            generatorContext.heightAccessor(),
+                            generatorContext.random(),
+                            generatorContext.seed())));
+        });
+    }
+
+    @Override
+    public GenerationStep.Decoration step() {
+        return GenerationStep.Decoration.UNDERGROUND_STRUCTURES;
+    }
+}
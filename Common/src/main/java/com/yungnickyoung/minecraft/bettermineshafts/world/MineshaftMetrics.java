@@ -0,0 +1,197 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world;
+
+import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import net.minecraft.world.level.levelgen.structure.StructurePiece;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms describing mineshaft generation since the server started, or since the last reset.
+ * Everything here is updated from worldgen threads, so only striped counters are used and nothing blocks.
+ * Reported through {@code /bettermineshafts stats} and, if enabled in the config, a periodic log line.
+ */
+public final class MineshaftMetrics {
+    public static final LongAdder STARTS_ATTEMPTED = new LongAdder();
+    public static final LongAdder STARTS_ACCEPTED = new LongAdder();
+    public static final LongAdder SURFACE_PLANS = new LongAdder();
+    public static final LongAdder SURFACE_TUNNELS = new LongAdder();
+    public static final LongAdder BLOCKS_WRITTEN = new LongAdder();
+    public static final LongAdder ENTITIES_SPAWNED = new LongAdder();
+    /** How many blocks leg and pillar scans travel down before finding a floor. */
+    public static final Histogram LEG_SCAN_DEPTH = new Histogram();
+
+    private static final Map<String, LongAdder> PIECES_BY_TYPE = new ConcurrentHashMap<>();
+    /** postProcess time in nanoseconds, per piece class. */
+    private static final Map<String, Histogram> POST_PROCESS_NANOS = new ConcurrentHashMap<>();
+
+    private static volatile long lastLogNanos = System.nanoTime();
+
+    private MineshaftMetrics() {
+    }
+
+    public static void recordPiece(StructurePiece piece) {
+        String type = piece.getClass().getSimpleName();
+        LongAdder counter = PIECES_BY_TYPE.get(type);
+        if (counter == null) {
+            counter = PIECES_BY_TYPE.computeIfAbsent(type, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public static void recordPostProcess(StructurePiece piece, long nanos) {
+        String type = piece.getClass().getSimpleName();
+        Histogram histogram = POST_PROCESS_NANOS.get(type);
+        if (histogram == null) {
+            histogram = POST_PROCESS_NANOS.computeIfAbsent(type, key -> new Histogram());
+        }
+        histogram.record(nanos);
+    }
+
+    public static void reset() {
+        STARTS_ATTEMPTED.reset();
+        STARTS_ACCEPTED.reset();
+        SURFACE_PLANS.reset();
+        SURFACE_TUNNELS.reset();
+        BLOCKS_WRITTEN.reset();
+        ENTITIES_SPAWNED.reset();
+        LEG_SCAN_DEPTH.reset();
+        PIECES_BY_TYPE.clear();
+        POST_PROCESS_NANOS.clear();
+    }
+
+    /**
+     * Called every server tick. Logs a summary line once the configured interval has passed.
+     */
+    public static void tick() {
+        int intervalMinutes = BetterMineshaftsCommon.CONFIG.statsLogInterval();
+        if (intervalMinutes <= 0) return;
+        long now = System.nanoTime();
+        if (now - lastLogNanos < TimeUnit.MINUTES.toNanos(intervalMinutes)) return;
+        lastLogNanos = now;
+        BetterMineshaftsCommon.LOGGER.info(summaryLine());
+    }
+
+    /**
+     * One line summary, used for the periodic log.
+     */
+    public static String summaryLine() {
+        long pieces = PIECES_BY_TYPE.values().stream().mapToLong(LongAdder::sum).sum();
+        long postProcessCalls = 0, postProcessNanos = 0;
+        for (Histogram histogram : POST_PROCESS_NANOS.values()) {
+            postProcessCalls += histogram.count();
+            postProcessNanos += histogram.sum();
+        }
+        return String.format(Locale.ROOT, "Mineshaft stats: %d/%d starts accepted, %d pieces, %d postProcess calls (%.1f ms total), %d blocks written, %d entities, leg scan p99 %d",
+                STARTS_ACCEPTED.sum(), STARTS_ATTEMPTED.sum(), pieces, postProcessCalls, postProcessNanos / 1e6,
+                BLOCKS_WRITTEN.sum(), ENTITIES_SPAWNED.sum(), LEG_SCAN_DEPTH.percentile(.99));
+    }
+
+    /**
+     * Full report, one entry per line, used by the stats command.
+     */
+    public static List<String> report() {
+        List<String> lines = new ArrayList<>();
+        long attempted = STARTS_ATTEMPTED.sum(), accepted = STARTS_ACCEPTED.sum();
+        lines.add(String.format(Locale.ROOT, "Starts: %d accepted of %d attempted (%.3f%%)", accepted, attempted, 100.0 * accepted / Math.max(1, attempted)));
+        lines.add(String.format(Locale.ROOT, "Surface tunnels: %d of %d entrances", SURFACE_TUNNELS.sum(), SURFACE_PLANS.sum()));
+        lines.add(String.format(Locale.ROOT, "Blocks written: %d, entities spawned: %d", BLOCKS_WRITTEN.sum(), ENTITIES_SPAWNED.sum()));
+        lines.add(String.format(Locale.ROOT, "Leg scan depth: mean %.1f, p50 %d, p99 %d, max %d",
+                LEG_SCAN_DEPTH.mean(), LEG_SCAN_DEPTH.percentile(.5), LEG_SCAN_DEPTH.percentile(.99), LEG_SCAN_DEPTH.max()));
+
+        lines.add("Pieces laid out:");
+        PIECES_BY_TYPE.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> lines.add(String.format(Locale.ROOT, "  %s: %d", entry.getKey(), entry.getValue().sum())));
+
+        lines.add("postProcess time per call (us):");
+        POST_PROCESS_NANOS.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Histogram> entry) -> entry.getValue().sum()).reversed())
+                .forEach(entry -> {
+                    Histogram histogram = entry.getValue();
+                    lines.add(String.format(Locale.ROOT, "  %s: %d calls, mean %.1f, p50 %.1f, p99 %.1f, max %.1f",
+                            entry.getKey(), histogram.count(), histogram.mean() / 1e3,
+                            histogram.percentile(.5) / 1e3, histogram.percentile(.99) / 1e3, histogram.max() / 1e3));
+                });
+        return lines;
+    }
+
+    /**
+     * Histogram of non-negative values with power-of-two buckets.
+     * Percentiles are reported as the upper bound of the bucket they fall in, so they are accurate to within a factor of two.
+     */
+    public static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[65];
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+        public Histogram() {
+            for (int i = 0; i < this.buckets.length; i++) {
+                this.buckets[i] = new LongAdder();
+            }
+        }
+
+        public void record(long value) {
+            value = Math.max(value, 0);
+            this.buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+            this.sum.add(value);
+            this.max.accumulate(value);
+        }
+
+        public long count() {
+            long count = 0;
+            for (LongAdder bucket : this.buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        public long sum() {
+            return this.sum.sum();
+        }
+
+        public long max() {
+            return this.max.get();
+        }
+
+        public double mean() {
+            return (double) this.sum() / Math.max(1, this.count());
+        }
+
+        public long percentile(double fraction) {
+            long[] counts = new long[this.buckets.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = this.buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) return 0;
+
+            long rank = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    long upperBound = i == 0 ? 0 : i == 64 ? Long.MAX_VALUE : (1L << i) - 1;
+                    return Math.min(upperBound, this.max());
+                }
+            }
+            return this.max();
+        }
+
+        public void reset() {
+            for (LongAdder bucket : this.buckets) {
+                bucket.reset();
+            }
+            this.sum.reset();
+            this.max.reset();
+        }
+    }
+}
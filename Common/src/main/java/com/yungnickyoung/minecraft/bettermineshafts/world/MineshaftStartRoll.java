@@ -0,0 +1,84 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world;
+
+import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
+
+/**
+ * Decides whether a chunk is a candidate mineshaft start.
+ * This runs for every chunk in the world, so it is written to be stateless and allocation-free.
+ */
+public final class MineshaftStartRoll {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    /** Mixed into the hash roll so it is independent of other structures hashing the same seed and chunk. */
+    private static final long HASH_SALT = 593751784L;
+
+    private MineshaftStartRoll() {
+    }
+
+    /**
+     * Rolls the configured mineshaft spawn rate for the given chunk.
+     * Which roll is used depends on the legacy spawn roll config option.
+     */
+    public static boolean isStartChunk(long seed, int chunkX, int chunkZ) {
+        ConfigModule config = BetterMineshaftsCommon.CONFIG;
+        double roll = config.legacySpawnRoll()
+                ? legacyRoll(seed, chunkX, chunkZ)
+                : hashRoll(seed, chunkX, chunkZ);
+        return roll < config.mineshaftSpawnRate();
+    }
+
+    /**
+     * Returns exactly the value of
+     * {@code new WorldgenRandom(new LegacyRandomSource(0)).setLargeFeatureSeed(seed, chunkX, chunkZ)} followed by
+     * {@code nextDouble()}, which is how start chunks have always been rolled.
+     * The LCG steps are inlined so no random objects are created.
+     */
+    public static double legacyRoll(long seed, int chunkX, int chunkZ) {
+        // setSeed(seed), then two nextLong() calls
+        long state = (seed ^ MULTIPLIER) & MASK;
+        state = step(state);
+        int hi = (int) (state >>> 16);
+        state = step(state);
+        long a = ((long) hi << 32) + (int) (state >>> 16);
+        state = step(state);
+        hi = (int) (state >>> 16);
+        state = step(state);
+        long b = ((long) hi << 32) + (int) (state >>> 16);
+
+        // setSeed(large feature seed), then nextDouble()
+        state = (((long) chunkX * a ^ (long) chunkZ * b ^ seed) ^ MULTIPLIER) & MASK;
+        state = step(state);
+        int high26 = (int) (state >>> (48 - 26));
+        state = step(state);
+        int low27 = (int) (state >>> (48 - 27));
+        return (((long) high26 << 27) + low27) * DOUBLE_UNIT;
+    }
+
+    /**
+     * A stateless hash of the seed and chunk coordinates, uniformly distributed in [0, 1).
+     * Cheaper than the legacy roll, but picks different start chunks for the same seed.
+     */
+    public static double hashRoll(long seed, int chunkX, int chunkZ) {
+        long h = seed ^ HASH_SALT;
+        h ^= (long) chunkX * 0x9E3779B97F4A7C15L;
+        h = mix(h);
+        h ^= (long) chunkZ * 0xC2B2AE3D27D4EB4FL;
+        h = mix(h);
+        return (h >>> 11) * DOUBLE_UNIT;
+    }
+
+    private static long step(long state) {
+        return (state * MULTIPLIER + ADDEND) & MASK;
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,111 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Codec;
+import com.yungnickyoung.minecraft.bettermineshafts.module.StructurePlacementTypeModule;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.StructureFeatureManager;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.levelgen.feature.ConfiguredStructureFeature;
+import net.minecraft.world.level.levelgen.structure.StructureCheckResult;
+import net.minecraft.world.level.levelgen.structure.StructureStart;
+import net.minecraft.world.level.levelgen.structure.placement.StructurePlacement;
+import net.minecraft.world.level.levelgen.structure.placement.StructurePlacementType;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+
+/**
+ * Structure placement that only makes {@link MineshaftStartRoll} start chunks candidates.
+ * Vanilla skips every other chunk before looking up any starts or features for the structure set,
+ * where a random_spread placement with a spacing of 1 would make every chunk a candidate.
+ */
+public class MineshaftStructurePlacement implements StructurePlacement {
+    public static final MineshaftStructurePlacement INSTANCE = new MineshaftStructurePlacement();
+    public static final Codec<MineshaftStructurePlacement> CODEC = Codec.unit(() -> INSTANCE);
+
+    private MineshaftStructurePlacement() {
+    }
+
+    @Override
+    public boolean isFeatureChunk(ChunkGenerator chunkGenerator, long seed, int chunkX, int chunkZ) {
+        return MineshaftStartRoll.isStartChunk(seed, chunkX, chunkZ);
+    }
+
+    @Override
+    public StructurePlacementType<?> type() {
+        return StructurePlacementTypeModule.MINESHAFT_START;
+    }
+
+    /**
+     * Finds the nearest start of any of the given features, searching outward from the given position
+     * one ring of chunks at a time, up to searchRadius chunks away.
+     * Only candidate chunks are checked for starts, so most chunks cost a single roll.
+     *
+     * @param skipKnown whether to skip starts that were already found, as explorer maps do
+     * @return the position of the start and its feature, or null if none was found
+     */
+    @Nullable
+    public Pair<BlockPos, Holder<ConfiguredStructureFeature<?, ?>>> findNearest(ServerLevel level, Collection<Holder<ConfiguredStructureFeature<?, ?>>> features,
+                                                                             BlockPos pos, int searchRadius, boolean skipKnown) {
+        long seed = level.getSeed();
+        int centerX = SectionPos.blockToSectionCoord(pos.getX());
+        int centerZ = SectionPos.blockToSectionCoord(pos.getZ());
+        StructureFeatureManager structureFeatureManager = level.structureFeatureManager();
+
+        for (int radius = 0; radius <= searchRadius; radius++) {
+            Pair<BlockPos, Holder<ConfiguredStructureFeature<?, ?>>> nearest = null;
+            double nearestDistance = Double.MAX_VALUE;
+            for (int dx = -radius; dx <= radius; dx++) {
+                boolean onXEdge = dx == -radius || dx == radius;
+                // Only the chunks on this ring's edge; the inner chunks were covered by previous rings
+                for (int dz = -radius; dz <= radius; dz += onXEdge ? 1 : Math.max(1, 2 * radius)) {
+                    int chunkX = centerX + dx, chunkZ = centerZ + dz;
+                    if (!MineshaftStartRoll.isStartChunk(seed, chunkX, chunkZ)) continue;
+
+                    ChunkPos chunkPos = new ChunkPos(chunkX, chunkZ);
+                    for (Holder<ConfiguredStructureFeature<?, ?>> feature : features) {
+                        if (hasStart(level, structureFeatureManager, chunkPos, feature, skipKnown)) {
+                            BlockPos startPos = new BlockPos(chunkPos.getMinBlockX(), 0, chunkPos.getMinBlockZ());
+                            double distance = startPos.distSqr(pos);
+                            if (distance < nearestDistance) {
+                                nearest = Pair.of(startPos, feature);
+                                nearestDistance = distance;
+                            }
+                            break;
+                        }
+                    }
+                }
+            }
+            if (nearest != null) {
+                return nearest;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mirrors the start check vanilla's locate does for random_spread placements.
+     */
+    private static boolean hasStart(ServerLevel level, StructureFeatureManager structureFeatureManager, ChunkPos chunkPos,
+                                    Holder<ConfiguredStructureFeature<?, ?>> feature, boolean skipKnown) {
+        StructureCheckResult result = structureFeatureManager.checkStructurePresence(chunkPos, feature.value(), skipKnown);
+        if (result == StructureCheckResult.START_NOT_PRESENT) return false;
+        if (!skipKnown && result == StructureCheckResult.START_PRESENT) return true;
+
+        ChunkAccess chunk = level.getChunk(chunkPos.x, chunkPos.z, ChunkStatus.STRUCTURE_STARTS);
+        StructureStart start = structureFeatureManager.getStartForFeature(SectionPos.bottomOf(chunk), feature.value(), chunk);
+        if (start == null || !start.isValid()) return false;
+        if (skipKnown) {
+            if (!start.canBeReferenced()) return false;
+            structureFeatureManager.addReference(start);
+        }
+        return true;
+    }
+}
@@ -3,8 +3,14 @@ package com.yungnickyoung.minecraft.bettermineshafts.world.config;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.yungnickyoung.minecraft.bettermineshafts.world.BetterMineshaftStructureFeature;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BlockStateSampler;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces.MineshaftDecorator;
 import com.yungnickyoung.minecraft.yungsapi.world.BlockStateRandomizer;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.block.TrapDoorBlock;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.BlockStateProperties;
+import net.minecraft.world.level.block.state.properties.WallSide;
 import net.minecraft.world.level.levelgen.feature.configurations.FeatureConfiguration;
 
 public class BetterMineshaftFeatureConfiguration implements FeatureConfiguration {
@@ -24,6 +30,11 @@ public class BetterMineshaftFeatureConfiguration implements FeatureConfiguration
     public MineshaftDecorationChances decorationChances;
     public MineshaftBlockStates blockStates;
     public MineshaftBlockstateRandomizers blockStateRandomizers;
+    public final MineshaftDerivedBlockStates derivedBlockStates;
+    public final MineshaftBlockStateSamplers blockStateSamplers;
+
+    /** Compiled on first use, since the decoration chances are public and may still be changed after construction. */
+    private volatile MineshaftDecorator decorator;
 
     public BetterMineshaftFeatureConfiguration(boolean flammableLegs, float replacementRate,
                                                BetterMineshaftStructureFeature.LegVariant legVariant,
@@ -36,6 +47,20 @@ public class BetterMineshaftFeatureConfiguration implements FeatureConfiguration
         this.decorationChances = decorationChances;
         this.blockStates = blockStates;
         this.blockStateRandomizers = blockStateRandomizers;
+        this.derivedBlockStates = new MineshaftDerivedBlockStates(blockStates);
+        this.blockStateSamplers = new MineshaftBlockStateSamplers(blockStateRandomizers);
+    }
+
+    /**
+     * Returns the decorations this config places, compiled from its decoration chances.
+     */
+    public MineshaftDecorator getDecorator() {
+        MineshaftDecorator decorator = this.decorator;
+        if (decorator == null) {
+            decorator = new MineshaftDecorator(this.decorationChances);
+            this.decorator = decorator;
+        }
+        return decorator;
     }
 
     public static class MineshaftDecorationChances {
@@ -131,4 +156,62 @@ public class BetterMineshaftFeatureConfiguration implements FeatureConfiguration
             this.legRandomizer = legRandomizer;
         }
     }
+
+    /**
+     * The configured block state randomizers, compiled for the fill methods.
+     * These are built once per configuration rather than on every postProcess call.
+     */
+    public static class MineshaftBlockStateSamplers {
+        public final BlockStateSampler mainSampler;
+        public final BlockStateSampler floorSampler;
+        public final BlockStateSampler brickSampler;
+        public final BlockStateSampler legSampler;
+
+        public MineshaftBlockStateSamplers(MineshaftBlockstateRandomizers blockStateRandomizers) {
+            this.mainSampler = new BlockStateSampler(blockStateRandomizers.mainRandomizer);
+            this.floorSampler = new BlockStateSampler(blockStateRandomizers.floorRandomizer);
+            this.brickSampler = new BlockStateSampler(blockStateRandomizers.brickRandomizer);
+            this.legSampler = new BlockStateSampler(blockStateRandomizers.legRandomizer);
+        }
+    }
+
+    /**
+     * Variants of the configured block states that pieces place, e.g. supports connected along an axis.
+     * These are resolved once per configuration rather than on every postProcess call.
+     */
+    public static class MineshaftDerivedBlockStates {
+        /** Support block connected north-south, without a post. Used for the legs under big tunnels. */
+        public final BlockState supportBlockStateNorthSouth;
+        /** Support block connected east-west. Used for the supports along tunnel ceilings. */
+        public final BlockState supportBlockStateEastWest;
+        /** Trapdoor block facing north. */
+        public final BlockState trapdoorBlockStateNorth;
+
+        public MineshaftDerivedBlockStates(MineshaftBlockStates blockStates) {
+            BlockState supportBlock = blockStates.supportBlockState;
+            if (supportBlock.hasProperty(BlockStateProperties.NORTH_WALL) && supportBlock.hasProperty(BlockStateProperties.SOUTH_WALL)) {
+                supportBlock = supportBlock.setValue(BlockStateProperties.NORTH_WALL, WallSide.TALL).setValue(BlockStateProperties.SOUTH_WALL, WallSide.TALL);
+            } else if (supportBlock.hasProperty(BlockStateProperties.NORTH) && supportBlock.hasProperty(BlockStateProperties.SOUTH)) {
+                supportBlock = supportBlock.setValue(BlockStateProperties.NORTH, true).setValue(BlockStateProperties.SOUTH, true);
+            }
+            if (supportBlock.hasProperty(BlockStateProperties.UP)) {
+                supportBlock = supportBlock.setValue(BlockStateProperties.UP, false);
+            }
+            this.supportBlockStateNorthSouth = supportBlock;
+
+            supportBlock = blockStates.supportBlockState;
+            if (supportBlock.hasProperty(BlockStateProperties.EAST_WALL) && supportBlock.hasProperty(BlockStateProperties.WEST_WALL)) {
+                supportBlock = supportBlock.setValue(BlockStateProperties.EAST_WALL, WallSide.TALL).setValue(BlockStateProperties.WEST_WALL, WallSide.TALL);
+            } else if (supportBlock.hasProperty(BlockStateProperties.EAST) && supportBlock.hasProperty(BlockStateProperties.WEST)) {
+                supportBlock = supportBlock.setValue(BlockStateProperties.EAST, true).setValue(BlockStateProperties.WEST, true);
+            }
+            this.supportBlockStateEastWest = supportBlock;
+
+            BlockState trapdoorBlock = blockStates.trapdoorBlockState;
+            if (trapdoorBlock.hasProperty(TrapDoorBlock.FACING)) {
+                trapdoorBlock = trapdoorBlock.setValue(TrapDoorBlock.FACING, Direction.NORTH);
+            }
+            this.trapdoorBlockStateNorth = trapdoorBlock;
+        }
+    }
 }
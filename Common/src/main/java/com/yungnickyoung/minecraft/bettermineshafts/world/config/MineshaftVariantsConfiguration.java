@@ -0,0 +1,77 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world.config;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import net.minecraft.core.Holder;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.levelgen.feature.ConfiguredStructureFeature;
+import net.minecraft.world.level.levelgen.feature.configurations.FeatureConfiguration;
+
+import javax.annotation.Nullable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Config for the structure that dispatches to one of several mineshaft variants by biome.
+ * Each variant is a regular Better Mineshaft configured structure feature, whose biomes decide where it is used.
+ */
+public class MineshaftVariantsConfiguration implements FeatureConfiguration {
+    public static final Codec<MineshaftVariantsConfiguration> CODEC = RecordCodecBuilder.create((instance) -> instance
+            .group(
+                    ConfiguredStructureFeature.CODEC.listOf().fieldOf("variants").forGetter((config) -> config.variants))
+            .apply(instance, MineshaftVariantsConfiguration::new));
+
+    /** Bumped whenever biome tags are rebound, so every variant table is rebuilt on next use. */
+    private static volatile int tagsVersion;
+
+    public final List<Holder<ConfiguredStructureFeature<?, ?>>> variants;
+
+    /** Built on first use, since the variants' biome tags aren't bound when the config is decoded. */
+    private volatile VariantTable variantTable;
+
+    public MineshaftVariantsConfiguration(List<Holder<ConfiguredStructureFeature<?, ?>>> variants) {
+        this.variants = variants;
+    }
+
+    /**
+     * Returns the config of the variant used in the given biome, or null if no variant spawns there.
+     * If a biome is in several variants' biomes, the first of them in the list is used.
+     */
+    @Nullable
+    public BetterMineshaftFeatureConfiguration getVariant(Holder<Biome> biome) {
+        VariantTable table = this.variantTable;
+        if (table == null || table.tagsVersion != tagsVersion) {
+            table = new VariantTable(tagsVersion, this.variants);
+            this.variantTable = table;
+        }
+        return table.variantByBiome.get(biome.value());
+    }
+
+    /**
+     * Discards every variant table so they are rebuilt against the current biome tags on next use.
+     */
+    public static void invalidateVariantTables() {
+        tagsVersion++;
+    }
+
+    private static class VariantTable {
+        private final int tagsVersion;
+        private final Map<Biome, BetterMineshaftFeatureConfiguration> variantByBiome = new IdentityHashMap<>();
+
+        private VariantTable(int tagsVersion, List<Holder<ConfiguredStructureFeature<?, ?>>> variants) {
+            this.tagsVersion = tagsVersion;
+            for (Holder<ConfiguredStructureFeature<?, ?>> variant : variants) {
+                ConfiguredStructureFeature<?, ?> feature = variant.value();
+                if (!(feature.config instanceof BetterMineshaftFeatureConfiguration config)) {
+                    BetterMineshaftsCommon.LOGGER.error("Mineshaft variant {} is not a Better Mineshaft. Skipping it.", variant);
+                    continue;
+                }
+                for (Holder<Biome> biome : feature.biomes) {
+                    this.variantByBiome.putIfAbsent(biome.value(), config);
+                }
+            }
+        }
+    }
+}
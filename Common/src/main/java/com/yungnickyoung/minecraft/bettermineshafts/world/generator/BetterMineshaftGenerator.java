@@ -1,6 +1,7 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator;
 
 import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces.*;
 import net.minecraft.core.Direction;
@@ -31,10 +32,11 @@ public class BetterMineshaftGenerator {
         BoundingBox boundingBox;
         int rand = random.nextInt(100);
         BetterMineshaftFeatureConfiguration config = ((BetterMineshaftPiece) structurePiece).config;
+        ConfigModule modConfig = BetterMineshaftsCommon.CONFIG;
 
         // End of chain - place ore deposit or zombie villager room
-        if (chainLength > BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftPieceChainLength - 2) {
-            if (rand < BetterMineshaftsCommon.CONFIG.spawnRates.zombieVillagerRoomSpawnRate) {
+        if (chainLength > modConfig.spawnRates().smallShaftPieceChainLength() - 2) {
+            if (rand < modConfig.spawnRates().zombieVillagerRoomSpawnRate()) {
                 // Need to offset by 1 since room is wider than tunnel
                 if (direction == Direction.NORTH) x -= 1;
                 else if (direction == Direction.EAST) z -= 1;
@@ -48,7 +50,7 @@ public class BetterMineshaftGenerator {
                     return newPiece;
                 }
             } else {
-                if (!BetterMineshaftsCommon.CONFIG.ores.enabled) return null;
+                if (!modConfig.ores().enabled()) return null;
                 boundingBox = OreDeposit.determineBoxPosition(structurePieceAccessor, random, x, y, z, direction);
                 if (boundingBox != null) {
                     BetterMineshaftPiece newPiece = new OreDeposit(chainLength + 1, random, boundingBox, direction, config);
@@ -61,7 +63,7 @@ public class BetterMineshaftGenerator {
         }
 
         // Add new piece.
-        if (rand >= 90 && chainLength > 2 && chainLength < BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftPieceChainLength - 2) { // Intersection can't be placed early on or at the very end
+        if (rand >= 90 && chainLength > 2 && chainLength < modConfig.spawnRates().smallShaftPieceChainLength() - 2) { // Intersection can't be placed early on or at the very end
             boundingBox = LayeredIntersection4.determineBoxPosition(structurePieceAccessor, random, x, y, z, direction);
             if (boundingBox != null) {
                 BetterMineshaftPiece newPiece = new LayeredIntersection4(chainLength + 1, random, boundingBox, direction, config);
@@ -69,7 +71,7 @@ public class BetterMineshaftGenerator {
                 newPiece.addChildren(structurePiece, structurePieceAccessor, random);
                 return newPiece;
             }
-        } else if (rand >= 80 && chainLength < BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftPieceChainLength - 2) { // Stairs can't be placed at the very end
+        } else if (rand >= 80 && chainLength < modConfig.spawnRates().smallShaftPieceChainLength() - 2) { // Stairs can't be placed at the very end
             boundingBox = SmallTunnelStairs.determineBoxPosition(structurePieceAccessor, random, x, y, z, direction);
             if (boundingBox != null) {
                 BetterMineshaftPiece newPiece = new SmallTunnelStairs(chainLength + 1, random, boundingBox, direction, config);
@@ -85,7 +87,7 @@ public class BetterMineshaftGenerator {
                 newPiece.addChildren(structurePiece, structurePieceAccessor, random);
                 return newPiece;
             }
-        } else if (rand >= 60 && chainLength > 2 && chainLength < BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftPieceChainLength - 2) { // Intersection can't be placed early on or at the very end
+        } else if (rand >= 60 && chainLength > 2 && chainLength < modConfig.spawnRates().smallShaftPieceChainLength() - 2) { // Intersection can't be placed early on or at the very end
             boundingBox = LayeredIntersection5.determineBoxPosition(structurePieceAccessor, random, x, y, z, direction);
             if (boundingBox != null) {
                 BetterMineshaftPiece newPiece = new LayeredIntersection5(chainLength + 1, random, boundingBox, direction, config);
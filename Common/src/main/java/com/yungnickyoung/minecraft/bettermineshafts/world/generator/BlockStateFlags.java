@@ -0,0 +1,121 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world.generator;
+
+import com.yungnickyoung.minecraft.bettermineshafts.module.TagModule;
+import net.minecraft.core.Registry;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.material.Material;
+
+import java.util.Set;
+
+/**
+ * Per-BlockState flags for the checks mineshaft pieces make on nearly every block they scan,
+ * stored in a flat table indexed by {@link Block#BLOCK_STATE_REGISTRY} id so each check is a single array load.
+ * <p>
+ * The table is built lazily on first use and must be invalidated whenever block tags are reloaded,
+ * since the replaceable flag depends on the {@code bettermineshafts:replaceable_by_mineshaft} tag.
+ */
+public final class BlockStateFlags {
+    /** Air, liquid, or a block in the replaceable_by_mineshaft tag. Legs and chains extend through these. */
+    public static final byte REPLACEABLE = 1;
+    /** Any material other than air, water, lava or water plants, excluding placed chains. */
+    public static final byte SOLID = 1 << 1;
+    /** Air, or a chain as placed by a mineshaft. */
+    public static final byte AIR_OR_CHAIN = 1 << 2;
+    /** Water or lava. */
+    public static final byte LIQUID = 1 << 3;
+
+    private static final Set<Material> NON_SOLID_MATERIALS = Set.of(Material.AIR, Material.WATER, Material.LAVA, Material.WATER_PLANT);
+
+    /** Used when the tag hasn't been bound, e.g. before any data packs are loaded. Matches the tag's default contents. */
+    private static final Set<Block> DEFAULT_REPLACEABLE_BLOCKS = Set.of(
+            Blocks.GLOW_LICHEN,
+            Blocks.SEAGRASS,
+            Blocks.TALL_SEAGRASS,
+            Blocks.POINTED_DRIPSTONE,
+            Blocks.CAVE_VINES,
+            Blocks.CAVE_VINES_PLANT,
+            Blocks.MOSS_CARPET,
+            Blocks.SNOW);
+
+    private static volatile byte[] table;
+
+    private BlockStateFlags() {
+    }
+
+    public static boolean isReplaceable(BlockState blockState) {
+        return has(blockState, REPLACEABLE);
+    }
+
+    public static boolean isSolid(BlockState blockState) {
+        return has(blockState, SOLID);
+    }
+
+    public static boolean isAirOrChain(BlockState blockState) {
+        return has(blockState, AIR_OR_CHAIN);
+    }
+
+    public static boolean isLiquid(BlockState blockState) {
+        return has(blockState, LIQUID);
+    }
+
+    public static boolean has(BlockState blockState, byte flag) {
+        byte[] flags = table;
+        if (flags == null) {
+            flags = build();
+        }
+        int id = Block.BLOCK_STATE_REGISTRY.getId(blockState);
+        // States registered after the table was built (or unregistered ones, id -1) are computed directly
+        if (id < 0 || id >= flags.length) {
+            return (compute(blockState) & flag) != 0;
+        }
+        return (flags[id] & flag) != 0;
+    }
+
+    /**
+     * Discards the table so it is rebuilt against the current block tags on next use.
+     */
+    public static void invalidate() {
+        table = null;
+    }
+
+    private static byte[] build() {
+        byte[] flags = new byte[Block.BLOCK_STATE_REGISTRY.size()];
+        for (BlockState blockState : Block.BLOCK_STATE_REGISTRY) {
+            int id = Block.BLOCK_STATE_REGISTRY.getId(blockState);
+            if (id >= 0 && id < flags.length) {
+                flags[id] = compute(blockState);
+            }
+        }
+        table = flags;
+        return flags;
+    }
+
+    private static byte compute(BlockState blockState) {
+        byte flags = 0;
+        Material material = blockState.getMaterial();
+        boolean isChain = blockState == Blocks.CHAIN.defaultBlockState();
+
+        if (blockState.isAir() || material.isLiquid() || isInReplaceableTag(blockState)) {
+            flags |= REPLACEABLE;
+        }
+        if (!isChain && !NON_SOLID_MATERIALS.contains(material)) {
+            flags |= SOLID;
+        }
+        if (blockState.isAir() || isChain) {
+            flags |= AIR_OR_CHAIN;
+        }
+        if (material == Material.WATER || material == Material.LAVA) {
+            flags |= LIQUID;
+        }
+        return flags;
+    }
+
+    private static boolean isInReplaceableTag(BlockState blockState) {
+        if (TagModule.REPLACEABLE_BY_MINESHAFT != null && Registry.BLOCK.isKnownTagName(TagModule.REPLACEABLE_BY_MINESHAFT)) {
+            return blockState.is(TagModule.REPLACEABLE_BY_MINESHAFT);
+        }
+        return DEFAULT_REPLACEABLE_BLOCKS.contains(blockState.getBlock());
+    }
+}
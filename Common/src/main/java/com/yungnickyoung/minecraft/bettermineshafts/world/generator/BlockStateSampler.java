@@ -0,0 +1,138 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world.generator;
+
+import com.yungnickyoung.minecraft.yungsapi.world.BlockStateRandomizer;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A {@link BlockStateRandomizer} compiled for the fill methods, which draw one block state per position.
+ * With the per-piece {@link FastPieceRandom}, sampling uses an alias table (Vose's method),
+ * so each draw costs one random float and two array loads no matter how many entries the randomizer has.
+ * With the regular random, sampling is left to the randomizer itself, so worlds generate exactly as before.
+ */
+public final class BlockStateSampler {
+    private final BlockStateRandomizer randomizer;
+    /** Alias table over every entry and the default block state. */
+    private final AliasTable table;
+    /** Alias table over only the outcomes that aren't air, or the full table if every outcome is air. */
+    private final AliasTable nonAirTable;
+
+    public BlockStateSampler(BlockStateRandomizer randomizer) {
+        this.randomizer = randomizer;
+
+        // Work out how likely each outcome is the same way the randomizer walks its entries:
+        // each entry covers the next slice of [0, 1), and the default covers whatever is left.
+        List<BlockState> states = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        double covered = 0;
+        for (BlockStateRandomizer.Entry entry : randomizer.getEntries()) {
+            double weight = Math.min(Math.max(entry.probability, 0), 1 - covered);
+            states.add(entry.blockState);
+            weights.add(weight);
+            covered += weight;
+        }
+        states.add(randomizer.getDefaultBlockState());
+        weights.add(1 - covered);
+
+        this.table = new AliasTable(states, weights);
+
+        List<BlockState> nonAirStates = new ArrayList<>();
+        List<Double> nonAirWeights = new ArrayList<>();
+        for (int i = 0; i < states.size(); i++) {
+            if (!isAir(states.get(i))) {
+                nonAirStates.add(states.get(i));
+                nonAirWeights.add(weights.get(i));
+            }
+        }
+        this.nonAirTable = nonAirWeights.stream().anyMatch(weight -> weight > 0) ? new AliasTable(nonAirStates, nonAirWeights) : this.table;
+    }
+
+    /**
+     * Draws a block state.
+     */
+    public BlockState get(Random random) {
+        return random instanceof FastPieceRandom ? this.table.sample(random) : this.randomizer.get(random);
+    }
+
+    /**
+     * Draws a block state other than air, for positions where liquid was. This helps to avoid floating water.
+     * The regular random keeps redrawing up to 10 times while it gets air, as it always has.
+     * The fast RNG draws from the non-air outcomes directly instead.
+     */
+    public BlockState getNonAir(Random random) {
+        if (random instanceof FastPieceRandom) {
+            return this.nonAirTable.sample(random);
+        }
+        BlockState blockState = this.randomizer.get(random);
+        int numAttempts = 0;
+        while (isAir(blockState) && numAttempts < 10) {
+            blockState = this.randomizer.get(random);
+            numAttempts++;
+        }
+        return blockState;
+    }
+
+    private static boolean isAir(BlockState blockState) {
+        return blockState == Blocks.AIR.defaultBlockState() || blockState == Blocks.CAVE_AIR.defaultBlockState();
+    }
+
+    /**
+     * Each column holds one outcome, kept with the column's probability and swapped for its alias otherwise.
+     */
+    private static final class AliasTable {
+        private final BlockState[] states;
+        private final float[] probabilities;
+        private final BlockState[] aliases;
+
+        private AliasTable(List<BlockState> outcomes, List<Double> weights) {
+            int n = outcomes.size();
+            this.states = outcomes.toArray(new BlockState[0]);
+            this.probabilities = new float[n];
+            this.aliases = new BlockState[n];
+
+            double total = weights.stream().mapToDouble(Double::doubleValue).sum();
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int numSmall = 0, numLarge = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = weights.get(i) * n / total;
+                if (scaled[i] < 1) small[numSmall++] = i;
+                else large[numLarge++] = i;
+            }
+
+            // Pair each under-full column with an over-full one, which tops it up and becomes its alias
+            while (numSmall > 0 && numLarge > 0) {
+                int less = small[--numSmall];
+                int more = large[--numLarge];
+                this.probabilities[less] = (float) scaled[less];
+                this.aliases[less] = this.states[more];
+                scaled[more] += scaled[less] - 1;
+                if (scaled[more] < 1) small[numSmall++] = more;
+                else large[numLarge++] = more;
+            }
+
+            // Whatever is left is full, give or take rounding
+            while (numLarge > 0) {
+                int i = large[--numLarge];
+                this.probabilities[i] = 1;
+                this.aliases[i] = this.states[i];
+            }
+            while (numSmall > 0) {
+                int i = small[--numSmall];
+                this.probabilities[i] = 1;
+                this.aliases[i] = this.states[i];
+            }
+        }
+
+        private BlockState sample(Random random) {
+            float u = random.nextFloat() * this.states.length;
+            int column = Math.min((int) u, this.states.length - 1);
+            return u - column < this.probabilities[column] ? this.states[column] : this.aliases[column];
+        }
+    }
+}
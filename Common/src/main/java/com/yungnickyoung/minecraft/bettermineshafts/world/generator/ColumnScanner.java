@@ -0,0 +1,91 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world.generator;
+
+import net.minecraft.world.level.LevelReader;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.function.Predicate;
+
+/**
+ * Scans a single block column for the first state that doesn't match a predicate, e.g. the floor under a leg.
+ * Blocks are read straight from the column's chunk sections, and sections holding only air are skipped whole
+ * if the predicate matches air. A leg over a deep cave then takes a handful of section checks instead of a
+ * chunk lookup per block.
+ */
+public final class ColumnScanner {
+    private ColumnScanner() {
+    }
+
+    /**
+     * Scans down from fromY to toY, both inclusive.
+     *
+     * @return the highest y in the range whose state doesn't match, or toY - 1 if they all match
+     */
+    public static int scanDown(LevelReader world, int x, int z, int fromY, int toY, Predicate<BlockState> matches) {
+        ChunkAccess chunk = world.getChunk(x >> 4, z >> 4);
+        boolean skipAir = matchesAir(matches);
+        int y = fromY;
+        while (y >= toY) {
+            int sectionBottom = Math.max(y & ~15, toY);
+            int sectionIndex = chunk.getSectionIndex(y);
+            if (sectionIndex < 0 || sectionIndex >= chunk.getSectionsCount()) {
+                // Outside the build height everything reads as void air
+                if (!matches.test(Blocks.VOID_AIR.defaultBlockState())) return y;
+                y = sectionBottom - 1;
+                continue;
+            }
+
+            LevelChunkSection section = chunk.getSection(sectionIndex);
+            if (skipAir && section.hasOnlyAir()) {
+                y = sectionBottom - 1;
+                continue;
+            }
+            for (; y >= sectionBottom; y--) {
+                if (!matches.test(section.getBlockState(x & 15, y & 15, z & 15))) return y;
+            }
+        }
+        return toY - 1;
+    }
+
+    /**
+     * Scans up from fromY to toY, both inclusive.
+     *
+     * @return the lowest y in the range whose state doesn't match, or toY + 1 if they all match
+     */
+    public static int scanUp(LevelReader world, int x, int z, int fromY, int toY, Predicate<BlockState> matches) {
+        ChunkAccess chunk = world.getChunk(x >> 4, z >> 4);
+        boolean skipAir = matchesAir(matches);
+        int y = fromY;
+        while (y <= toY) {
+            int sectionTop = Math.min(y | 15, toY);
+            int sectionIndex = chunk.getSectionIndex(y);
+            if (sectionIndex < 0 || sectionIndex >= chunk.getSectionsCount()) {
+                // Outside the build height everything reads as void air
+                if (!matches.test(Blocks.VOID_AIR.defaultBlockState())) return y;
+                y = sectionTop + 1;
+                continue;
+            }
+
+            LevelChunkSection section = chunk.getSection(sectionIndex);
+            if (skipAir && section.hasOnlyAir()) {
+                y = sectionTop + 1;
+                continue;
+            }
+            for (; y <= sectionTop; y++) {
+                if (!matches.test(section.getBlockState(x & 15, y & 15, z & 15))) return y;
+            }
+        }
+        return toY + 1;
+    }
+
+    /**
+     * Whether every kind of air matches, so sections holding only air can be skipped.
+     */
+    private static boolean matchesAir(Predicate<BlockState> matches) {
+        return matches.test(Blocks.AIR.defaultBlockState())
+                && matches.test(Blocks.CAVE_AIR.defaultBlockState())
+                && matches.test(Blocks.VOID_AIR.defaultBlockState());
+    }
+}
@@ -0,0 +1,60 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world.generator;
+
+import com.yungnickyoung.minecraft.bettermineshafts.world.MineshaftMetrics;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.level.levelgen.structure.StructurePiece;
+import net.minecraft.world.level.levelgen.structure.StructurePieceAccessor;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Piece accessor used while laying out a single mineshaft.
+ * Pieces are forwarded to the wrapped accessor (normally the StructurePiecesBuilder) and their bounding boxes
+ * are also indexed in a coarse grid over the XZ plane, so a collision check only looks at pieces
+ * in the cells the query box overlaps instead of scanning every piece added so far.
+ */
+public class MineshaftPieceAccessor implements StructurePieceAccessor {
+    /** Cells are 16x16 blocks, roughly the footprint of a tunnel piece. */
+    private static final int CELL_SHIFT = 4;
+
+    private final StructurePieceAccessor delegate;
+    private final Long2ObjectMap<List<StructurePiece>> cells = new Long2ObjectOpenHashMap<>();
+
+    public MineshaftPieceAccessor(StructurePieceAccessor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addPiece(StructurePiece structurePiece) {
+        this.delegate.addPiece(structurePiece);
+        MineshaftMetrics.recordPiece(structurePiece);
+        BoundingBox box = structurePiece.getBoundingBox();
+        for (int cellX = box.minX() >> CELL_SHIFT; cellX <= box.maxX() >> CELL_SHIFT; cellX++) {
+            for (int cellZ = box.minZ() >> CELL_SHIFT; cellZ <= box.maxZ() >> CELL_SHIFT; cellZ++) {
+                this.cells.computeIfAbsent(ChunkPos.asLong(cellX, cellZ), key -> new ArrayList<>(4)).add(structurePiece);
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public StructurePiece findCollisionPiece(BoundingBox boundingBox) {
+        for (int cellX = boundingBox.minX() >> CELL_SHIFT; cellX <= boundingBox.maxX() >> CELL_SHIFT; cellX++) {
+            for (int cellZ = boundingBox.minZ() >> CELL_SHIFT; cellZ <= boundingBox.maxZ() >> CELL_SHIFT; cellZ++) {
+                List<StructurePiece> cellPieces = this.cells.get(ChunkPos.asLong(cellX, cellZ));
+                if (cellPieces == null) continue;
+                for (StructurePiece piece : cellPieces) {
+                    if (piece.getBoundingBox().intersects(boundingBox)) {
+                        return piece;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
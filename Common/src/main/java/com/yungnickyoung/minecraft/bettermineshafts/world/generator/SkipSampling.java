@@ -0,0 +1,35 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world.generator;
+
+import java.util.Random;
+
+/**
+ * Geometric skip sampling, used by the fast RNG generation mode.
+ * Instead of rolling a chance for every cell of a region, the number of cells until the next success
+ * is drawn directly, so only the cells that succeed are ever visited.
+ */
+public final class SkipSampling {
+    /** Returned by {@link #logMiss} for chances where every roll succeeds. */
+    public static final double ALWAYS = 0;
+
+    private SkipSampling() {
+    }
+
+    /**
+     * Precomputes log(1 - chance) for {@link #nextSkip}. The chance must be greater than 0.
+     * Returns {@link #ALWAYS} if the chance is 1 or more.
+     */
+    public static double logMiss(float chance) {
+        return chance >= 1 ? ALWAYS : Math.log1p(-chance);
+    }
+
+    /**
+     * Number of cells to skip before the next success, i.e. the number of failed rolls before one succeeds.
+     * Capped at Integer.MAX_VALUE, which is past the end of any region.
+     *
+     * @param logMiss log(1 - chance), as returned by {@link #logMiss}
+     */
+    public static long nextSkip(Random random, double logMiss) {
+        if (logMiss == ALWAYS) return 0;
+        return (long) Math.min(Math.log(1 - random.nextDouble()) / logMiss, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,89 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world.generator;
+
+import com.yungnickyoung.minecraft.yungsapi.world.SurfaceHelper;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ColumnPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.material.Material;
+
+/**
+ * Samples surface heights for one structure piece. Each column is only sampled once.
+ * Samplers are not thread-safe and are meant to be thrown away once the piece is done with them.
+ */
+public abstract class SurfaceHeightSampler {
+    private final Long2IntMap heights = new Long2IntOpenHashMap();
+
+    /**
+     * Samples the terrain the chunk generator will produce, without reading any chunks.
+     * Used while a start is laid out, before any of its chunks have generated.
+     * Only the base terrain is seen, so trees and other surface features don't count as surface.
+     */
+    public static SurfaceHeightSampler ofChunkGenerator(ChunkGenerator chunkGenerator, LevelHeightAccessor heightAccessor) {
+        return new SurfaceHeightSampler() {
+            @Override
+            protected int sample(int x, int z) {
+                return chunkGenerator.getFirstOccupiedHeight(x, z, Heightmap.Types.WORLD_SURFACE_WG, heightAccessor);
+            }
+        };
+    }
+
+    /**
+     * Samples the chunks in the world, returning the same heights as {@link SurfaceHelper#getSurfaceHeight}.
+     * Each chunk is only looked up once.
+     * <p>
+     * Where a chunk still has its worldgen surface heightmap, the top non-air block is read straight from it.
+     * If that block is solid or liquid it is the surface, which saves scanning down from the top of the world.
+     * Otherwise (e.g. the column is topped by grass or a cobweb) the regular downward scan is used.
+     */
+    public static SurfaceHeightSampler ofLevel(WorldGenLevel world) {
+        return new LevelSampler(world);
+    }
+
+    public int getSurfaceHeight(int x, int z) {
+        long columnKey = ChunkPos.asLong(x, z);
+        if (this.heights.containsKey(columnKey)) {
+            return this.heights.get(columnKey);
+        }
+        int height = sample(x, z);
+        this.heights.put(columnKey, height);
+        return height;
+    }
+
+    protected abstract int sample(int x, int z);
+
+    private static class LevelSampler extends SurfaceHeightSampler {
+        private final WorldGenLevel world;
+        private final Long2ObjectMap<ChunkAccess> chunks = new Long2ObjectOpenHashMap<>();
+        private final BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+
+        private LevelSampler(WorldGenLevel world) {
+            this.world = world;
+        }
+
+        @Override
+        protected int sample(int x, int z) {
+            ChunkAccess chunk = this.chunks.computeIfAbsent(ChunkPos.asLong(x >> 4, z >> 4), chunkKey -> this.world.getChunk(x >> 4, z >> 4));
+            if (chunk.hasPrimedHeightmap(Heightmap.Types.WORLD_SURFACE_WG)) {
+                int topY = chunk.getHeight(Heightmap.Types.WORLD_SURFACE_WG, x & 15, z & 15);
+                if (topY > chunk.getMinBuildHeight() && topY < chunk.getMaxBuildHeight() - 1) {
+                    BlockState topState = chunk.getBlockState(this.mutable.set(x, topY, z));
+                    Material material = topState.getMaterial();
+                    if (material.isSolid() || material.isLiquid()) {
+                        return topY;
+                    }
+                }
+            }
+            return SurfaceHelper.getSurfaceHeight(chunk, new ColumnPos(x, z));
+        }
+    }
+}
@@ -1,47 +1,141 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
 
+import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.BetterMineshaftStructureFeature;
+import com.yungnickyoung.minecraft.bettermineshafts.world.MineshaftMetrics;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BlockStateFlags;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BlockStateSampler;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.ColumnScanner;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.FastPieceRandom;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.SkipSampling;
 import com.yungnickyoung.minecraft.yungsapi.world.BlockStateRandomizer;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
-import net.minecraft.data.worldgen.features.CaveFeatures;
+import net.minecraft.core.Registry;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.DoubleTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.LevelReader;
+import net.minecraft.world.level.StructureFeatureManager;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.ai.village.poi.PoiType;
 import net.minecraft.world.level.WorldGenLevel;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.FallingBlock;
+import net.minecraft.world.level.block.Mirror;
+import net.minecraft.world.level.block.Rotation;
 import net.minecraft.world.level.block.VineBlock;
 import net.minecraft.world.level.block.entity.RandomizableContainerBlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.properties.BlockStateProperties;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.ImposterProtoChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.feature.ConfiguredStructureFeature;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.level.levelgen.structure.StructurePiece;
 import net.minecraft.world.level.levelgen.structure.StructurePieceAccessor;
 import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSerializationContext;
 import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceType;
-import net.minecraft.world.level.material.Material;
+import net.minecraft.world.level.material.FluidState;
 
+import javax.annotation.Nullable;
+import java.util.EnumSet;
+import java.util.Map;
 import java.util.Random;
-import java.util.Set;
+import java.util.function.Predicate;
 
 public abstract class BetterMineshaftPiece extends StructurePiece {
     public BetterMineshaftFeatureConfiguration config;
 
+    /** Id of the configured structure feature the config belongs to. Resolved on first save if not known. */
+    @Nullable
+    private ResourceLocation configId;
+
     protected static final BlockState AIR = Blocks.AIR.defaultBlockState();
-    private static final Set<Material> NON_SOLID_MATERIALS = Set.of(Material.AIR, Material.WATER, Material.LAVA, Material.WATER_PLANT);
+    private static final int NO_CEILING = Integer.MIN_VALUE;
+    private static final ResourceLocation DEFAULT_CONFIG_ID = new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "mineshaft_oak");
 
     public BetterMineshaftPiece(StructurePieceType structurePieceType, int chainLength, BetterMineshaftFeatureConfiguration config, BoundingBox boundingBox) {
         super(structurePieceType, chainLength, boundingBox);
         this.config = config;
     }
 
-    public BetterMineshaftPiece(StructurePieceType structurePieceType, CompoundTag compoundTag) {
+    public BetterMineshaftPiece(StructurePieceType structurePieceType, StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
         super(structurePieceType, compoundTag);
-        this.config = new BetterMineshaftFeatureConfiguration(
+        if (compoundTag.contains("configId", Tag.TAG_STRING)) {
+            this.configId = new ResourceLocation(compoundTag.getString("configId"));
+            this.config = getConfigById(structurePieceSerializationContext, this.configId);
+        } else {
+            this.config = loadLegacyConfig(compoundTag);
+        }
+    }
+
+    @Override
+    protected void addAdditionalSaveData(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        // Pieces generated from a registered configured feature only store its id.
+        // The full config is only written for configs that aren't in the registry.
+        if (this.configId == null) {
+            this.configId = findConfigId(structurePieceSerializationContext, this.config);
+        }
+        if (this.configId != null) {
+            compoundTag.putString("configId", this.configId.toString());
+        } else {
+            saveLegacyConfig(this.config, compoundTag);
+        }
+    }
+
+    /**
+     * Returns the config registered under the given configured structure feature id.
+     * Falls back to the default config if the id is no longer registered, e.g. because a data pack was removed.
+     */
+    private static BetterMineshaftFeatureConfiguration getConfigById(StructurePieceSerializationContext structurePieceSerializationContext, ResourceLocation configId) {
+        Registry<ConfiguredStructureFeature<?, ?>> registry = structurePieceSerializationContext.registryAccess().registryOrThrow(Registry.CONFIGURED_STRUCTURE_FEATURE_REGISTRY);
+        ConfiguredStructureFeature<?, ?> configuredStructureFeature = registry.get(configId);
+        if (configuredStructureFeature != null && configuredStructureFeature.config instanceof BetterMineshaftFeatureConfiguration config) {
+            return config;
+        }
+
+        BetterMineshaftsCommon.LOGGER.warn("Unable to find mineshaft config {}. Using {} instead.", configId, DEFAULT_CONFIG_ID);
+        configuredStructureFeature = registry.get(DEFAULT_CONFIG_ID);
+        if (configuredStructureFeature != null && configuredStructureFeature.config instanceof BetterMineshaftFeatureConfiguration config) {
+            return config;
+        }
+        throw new IllegalStateException("Missing default mineshaft config " + DEFAULT_CONFIG_ID);
+    }
+
+    /**
+     * Returns the id of the configured structure feature the given config belongs to, or null if it isn't registered.
+     */
+    @Nullable
+    private static ResourceLocation findConfigId(StructurePieceSerializationContext structurePieceSerializationContext, BetterMineshaftFeatureConfiguration config) {
+        Registry<ConfiguredStructureFeature<?, ?>> registry = structurePieceSerializationContext.registryAccess().registryOrThrow(Registry.CONFIGURED_STRUCTURE_FEATURE_REGISTRY);
+        for (Map.Entry<ResourceKey<ConfiguredStructureFeature<?, ?>>, ConfiguredStructureFeature<?, ?>> entry : registry.entrySet()) {
+            if (entry.getValue().config == config) {
+                return entry.getKey().location();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a config written in full into the piece's tag, as all pieces did before config ids were saved.
+     */
+    private static BetterMineshaftFeatureConfiguration loadLegacyConfig(CompoundTag compoundTag) {
+        return new BetterMineshaftFeatureConfiguration(
                 compoundTag.getBoolean("flammableLegs"),
                 compoundTag.getFloat("replacementRate"),
                 BetterMineshaftStructureFeature.LegVariant.byId(compoundTag.getInt("legVariantIndex")),
@@ -70,31 +164,30 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
                         new BlockStateRandomizer(compoundTag.getCompound("legSelector"))));
     }
 
-    @Override
-    protected void addAdditionalSaveData(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
-        compoundTag.putBoolean("flammableLegs", this.config.flammableLegs);
-        compoundTag.putFloat("replacementRate", this.config.replacementRate);
+    private static void saveLegacyConfig(BetterMineshaftFeatureConfiguration config, CompoundTag compoundTag) {
+        compoundTag.putBoolean("flammableLegs", config.flammableLegs);
+        compoundTag.putFloat("replacementRate", config.replacementRate);
         compoundTag.putInt("legVariantIndex", config.legVariant.ordinal());
-        compoundTag.putFloat("vineChance", this.config.decorationChances.vineChance);
-        compoundTag.putFloat("snowChance", this.config.decorationChances.snowChance);
-        compoundTag.putFloat("cactusChance", this.config.decorationChances.cactusChance);
-        compoundTag.putFloat("deadBushChance", this.config.decorationChances.deadBushChance);
-        compoundTag.putFloat("mushroomChance", this.config.decorationChances.mushroomChance);
-        compoundTag.putFloat("gravelPileChance", this.config.decorationChances.gravelPileChance);
-        compoundTag.putBoolean("lushDecorations", this.config.decorationChances.lushDecorations);
-        compoundTag.putBoolean("dripstoneDecorations", this.config.decorationChances.dripstoneDecorations);
-        compoundTag.putInt("mainBlockId", Block.BLOCK_STATE_REGISTRY.getId(this.config.blockStates.mainBlockState));
-        compoundTag.putInt("supportBlockId", Block.BLOCK_STATE_REGISTRY.getId(this.config.blockStates.supportBlockState));
-        compoundTag.putInt("slabBlockId", Block.BLOCK_STATE_REGISTRY.getId(this.config.blockStates.slabBlockState));
-        compoundTag.putInt("gravelBlockId", Block.BLOCK_STATE_REGISTRY.getId(this.config.blockStates.gravelBlockState));
-        compoundTag.putInt("stoneWallBlockId", Block.BLOCK_STATE_REGISTRY.getId(this.config.blockStates.stoneWallBlockState));
-        compoundTag.putInt("stoneSlabBlockId", Block.BLOCK_STATE_REGISTRY.getId(this.config.blockStates.stoneSlabBlockState));
-        compoundTag.putInt("trapdoorBlockId", Block.BLOCK_STATE_REGISTRY.getId(this.config.blockStates.trapdoorBlockState));
-        compoundTag.putInt("smallLegBlockId", Block.BLOCK_STATE_REGISTRY.getId(this.config.blockStates.smallLegBlockState));
-        compoundTag.put("mainSelector", this.config.blockStateRandomizers.mainRandomizer.saveTag());
-        compoundTag.put("floorSelector", this.config.blockStateRandomizers.floorRandomizer.saveTag());
-        compoundTag.put("brickSelector", this.config.blockStateRandomizers.brickRandomizer.saveTag());
-        compoundTag.put("legSelector", this.config.blockStateRandomizers.legRandomizer.saveTag());
+        compoundTag.putFloat("vineChance", config.decorationChances.vineChance);
+        compoundTag.putFloat("snowChance", config.decorationChances.snowChance);
+        compoundTag.putFloat("cactusChance", config.decorationChances.cactusChance);
+        compoundTag.putFloat("deadBushChance", config.decorationChances.deadBushChance);
+        compoundTag.putFloat("mushroomChance", config.decorationChances.mushroomChance);
+        compoundTag.putFloat("gravelPileChance", config.decorationChances.gravelPileChance);
+        compoundTag.putBoolean("lushDecorations", config.decorationChances.lushDecorations);
+        compoundTag.putBoolean("dripstoneDecorations", config.decorationChances.dripstoneDecorations);
+        compoundTag.putInt("mainBlockId", Block.BLOCK_STATE_REGISTRY.getId(config.blockStates.mainBlockState));
+        compoundTag.putInt("supportBlockId", Block.BLOCK_STATE_REGISTRY.getId(config.blockStates.supportBlockState));
+        compoundTag.putInt("slabBlockId", Block.BLOCK_STATE_REGISTRY.getId(config.blockStates.slabBlockState));
+        compoundTag.putInt("gravelBlockId", Block.BLOCK_STATE_REGISTRY.getId(config.blockStates.gravelBlockState));
+        compoundTag.putInt("stoneWallBlockId", Block.BLOCK_STATE_REGISTRY.getId(config.blockStates.stoneWallBlockState));
+        compoundTag.putInt("stoneSlabBlockId", Block.BLOCK_STATE_REGISTRY.getId(config.blockStates.stoneSlabBlockState));
+        compoundTag.putInt("trapdoorBlockId", Block.BLOCK_STATE_REGISTRY.getId(config.blockStates.trapdoorBlockState));
+        compoundTag.putInt("smallLegBlockId", Block.BLOCK_STATE_REGISTRY.getId(config.blockStates.smallLegBlockState));
+        compoundTag.put("mainSelector", config.blockStateRandomizers.mainRandomizer.saveTag());
+        compoundTag.put("floorSelector", config.blockStateRandomizers.floorRandomizer.saveTag());
+        compoundTag.put("brickSelector", config.blockStateRandomizers.brickRandomizer.saveTag());
+        compoundTag.put("legSelector", config.blockStateRandomizers.legRandomizer.saveTag());
     }
 
     /**
@@ -106,6 +199,32 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
     public void addChildren(StructurePiece structurePiece, StructurePieceAccessor structurePieceAccessor, Random random) {
     }
 
+    /**
+     * Places this piece's blocks within the given chunk box.
+     * With the fast RNG option enabled, the piece draws from its own {@link FastPieceRandom},
+     * seeded from the random passed in, instead of drawing from the shared one directly.
+     * The config is read once here, so the whole call sees the same snapshot even if the config is reloaded meanwhile.
+     * The time taken is recorded in {@link MineshaftMetrics}.
+     */
+    @Override
+    public final void postProcess(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos) {
+        long startNanos = System.nanoTime();
+        ConfigModule modConfig = BetterMineshaftsCommon.CONFIG;
+        Random pieceRandom = modConfig.fastRng() ? new FastPieceRandom(random.nextLong()) : random;
+        this.generatePiece(world, structureFeatureManager, chunkGenerator, pieceRandom, box, chunkPos, blockPos, modConfig);
+        MineshaftMetrics.recordPostProcess(this, System.nanoTime() - startNanos);
+    }
+
+    protected abstract void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig);
+
+    /**
+     * Whether the random fill methods should take their fast RNG paths.
+     * Decided by the random postProcess handed the piece, so it always agrees with the config snapshot of that call.
+     */
+    protected static boolean isFastRng(Random random) {
+        return random instanceof FastPieceRandom;
+    }
+
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
      *                                  GENERATION UTIL METHODS                                *
      * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
@@ -113,6 +232,7 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
     protected boolean addBarrel(WorldGenLevel world, BoundingBox boundingBox, Random random, BlockPos pos, ResourceLocation lootTableId) {
         if (boundingBox.isInside(pos) && world.getBlockState(pos).getBlock() != Blocks.BARREL) {
             world.setBlock(pos, Blocks.BARREL.defaultBlockState().setValue(BlockStateProperties.FACING, Direction.UP), 2);
+            MineshaftMetrics.BLOCKS_WRITTEN.increment();
             RandomizableContainerBlockEntity.setLootTable(world, random, pos, lootTableId);
             return true;
         } else {
@@ -129,18 +249,19 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
      */
     protected void addVines(WorldGenLevel world, BoundingBox boundingBox, Direction facing, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
         BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos nextPos = new BlockPos.MutableBlockPos();
         for (int x = minX; x <= maxX; x++) {
             for (int y = minY; y <= maxY; y++) {
                 for (int z = minZ; z <= maxZ; z++) {
-                    mutable.set(this.getWorldX(x, z), this.getWorldY(y), this.getWorldZ(x, z)).move(facing);
-                    BlockState nextBlock = this.getBlock(world, x + facing.getStepX(), y + facing.getStepY(), z + facing.getStepZ(), boundingBox);
+                    BlockState nextBlock = this.getBlock(world, nextPos, x + facing.getStepX(), y + facing.getStepY(), z + facing.getStepZ(), boundingBox);
+                    nextPos.set(this.getWorldX(x, z), this.getWorldY(y), this.getWorldZ(x, z)).move(facing);
                     if (
-                        this.getBlock(world, x, y, z, boundingBox).isAir()
-                            && Block.isFaceFull(nextBlock.getCollisionShape(world, mutable), facing.getOpposite())
+                        this.getBlock(world, mutable, x, y, z, boundingBox).isAir()
+                            && Block.isFaceFull(nextBlock.getCollisionShape(world, nextPos), facing.getOpposite())
                             && nextBlock.getBlock().defaultBlockState() != Blocks.LADDER.defaultBlockState()
                     ) {
                         if (random.nextFloat() < chance) {
-                            this.placeBlock(world, Blocks.VINE.defaultBlockState().setValue(VineBlock.getPropertyForFace(facing.getAxis() == Direction.Axis.X ? facing : facing.getOpposite()), true), x, y, z, boundingBox);
+                            this.placeBlock(world, Blocks.VINE.defaultBlockState().setValue(VineBlock.getPropertyForFace(facing.getAxis() == Direction.Axis.X ? facing : facing.getOpposite()), true), mutable, x, y, z, boundingBox);
                         }
                     }
                 }
@@ -162,139 +283,38 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
      * Add decorations specific to a biome variant, such as snow.
      */
     protected void addBiomeDecorations(WorldGenLevel world, BoundingBox box, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    BlockPos blockPos = getWorldPos(x, y, z);
-                    BlockState state = this.getBlock(world, x, y, z, box);
-                    BlockState stateBelow = this.getBlock(world, x, y - 1, z, box);
-
-                    // Snow layers
-                    if (config.decorationChances.snowChance > 0) {
-                        if (random.nextFloat() < config.decorationChances.snowChance && state.isAir() && Blocks.SNOW.canSurvive(AIR, world, blockPos)) {
-                            this.placeBlock(world, Blocks.SNOW.defaultBlockState().setValue(BlockStateProperties.LAYERS, random.nextInt(2) + 1), x, y, z, box);
-                        }
-                    }
-
-                    if (config.decorationChances.lushDecorations) {
-                        // Moss & ground plants
-                        if (box.isInside(blockPos) && random.nextFloat() < .005f) {
-                            CaveFeatures.MOSS_PATCH.value().place(world, world.getLevel().getChunkSource().getGenerator(), random, blockPos);
-                        }
-
-                        // Clay, water, dripleaf
-                        if (box.isInside(blockPos) && random.nextFloat() < .005f) {
-                            CaveFeatures.LUSH_CAVES_CLAY.value().place(world, world.getLevel().getChunkSource().getGenerator(), random, blockPos);
-                        }
-
-                        // Moss ceiling & cave vines
-                        if (box.isInside(blockPos) && random.nextFloat() < .005f) {
-                            CaveFeatures.MOSS_PATCH_CEILING.value().place(world, world.getLevel().getChunkSource().getGenerator(), random, blockPos);
-                        }
-
-                        // Moss layers
-                        if (stateBelow.is(config.blockStates.mainBlockState.getBlock()) && state.isAir() && stateBelow.isFaceSturdy(world, blockPos.below(), Direction.UP)) {
-                            this.placeBlock(world, Blocks.MOSS_CARPET.defaultBlockState(), x, y, z, box);
-                        }
-                    }
-
-                    if (config.decorationChances.dripstoneDecorations) {
-                        if (box.isInside(blockPos) && random.nextFloat() < .02f) {
-                            CaveFeatures.DRIPSTONE_CLUSTER.value().place(world, world.getLevel().getChunkSource().getGenerator(), random, blockPos);
-                        }
-
-                        if (box.isInside(blockPos) && random.nextFloat() < .02f) {
-                            CaveFeatures.POINTED_DRIPSTONE.value().place(world, world.getLevel().getChunkSource().getGenerator(), random, blockPos);
-                        }
-                    }
-
-                    // Cacti
-                    if (config.decorationChances.cactusChance > 0 && random.nextFloat() < config.decorationChances.cactusChance) {
-                        if (state.isAir() && Blocks.CACTUS.canSurvive(AIR, world, blockPos)) {
-                            this.placeBlock(world, Blocks.CACTUS.defaultBlockState().setValue(BlockStateProperties.AGE_15, 0), x, y, z, box);
-                            if (random.nextFloat() < .5f && this.getBlock(world, x, y + 1, z, box).is(Blocks.AIR)) {
-                                this.placeBlock(world, Blocks.CACTUS.defaultBlockState().setValue(BlockStateProperties.AGE_15, 0), x, y + 1, z, box);
-                            }
-                        }
-                    }
-
-                    // Dead bushes
-                    if (config.decorationChances.deadBushChance > 0 && random.nextFloat() < config.decorationChances.deadBushChance) {
-                        if (state.isAir() && (stateBelow.is(Blocks.SAND) || stateBelow.is(Blocks.RED_SAND) || stateBelow.is(Blocks.TERRACOTTA) || stateBelow.is(Blocks.WHITE_TERRACOTTA) || stateBelow.is(Blocks.ORANGE_TERRACOTTA) || stateBelow.is(Blocks.YELLOW_TERRACOTTA) || stateBelow.is(Blocks.BROWN_TERRACOTTA) || stateBelow.is(Blocks.DIRT))) {
-                            this.placeBlock(world, Blocks.DEAD_BUSH.defaultBlockState(), x, y, z, box);
-                        }
-                    }
-
-                    // Mushrooms
-                    if (config.decorationChances.mushroomChance > 0) {
-                        if (state.isAir() && Blocks.RED_MUSHROOM.canSurvive(AIR, world, blockPos)) {
-                            float r = random.nextFloat();
-                            if (r < config.decorationChances.mushroomChance / 2) {
-                                this.placeBlock(world, Blocks.RED_MUSHROOM.defaultBlockState(), x, y, z, box);
-                            } else if (r < config.decorationChances.mushroomChance) {
-                                this.placeBlock(world, Blocks.BROWN_MUSHROOM.defaultBlockState(), x, y, z, box);
-                            }
-                        }
-                    }
-                }
-            }
-        }
+        this.config.getDecorator().decorate(this, world, box, random, minX, minY, minZ, maxX, maxY, maxZ);
     }
 
-    protected void generateLeg(WorldGenLevel world, Random random, BoundingBox box, int x, int z, BlockStateRandomizer selector) {
-        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos(x, -1, z);
-        BlockState state = this.getBlock(world, mutable.getX(), mutable.getY(), mutable.getZ(), box);
-
-        while (getWorldY(mutable.getY()) > world.getMinBuildHeight() + 1 && isReplaceableByStructures(state)) {
-            this.placeBlock(world, selector.get(random), x, mutable.getY(), z, box);
-            mutable.move(Direction.DOWN);
-            state = this.getBlock(world, mutable.getX(), mutable.getY(), mutable.getZ(), box);
-        }
+    protected void generateLeg(WorldGenLevel world, Random random, BoundingBox box, int x, int z, BlockStateSampler selector) {
+        BlockPos.MutableBlockPos mutable = this.getWorldPos(new BlockPos.MutableBlockPos(), x, -1, z);
+        int floorY = scanColumnDown(world, box, mutable, world.getMinBuildHeight() + 2, this::isReplaceableByStructures);
+        placeLeg(world, random, box, x, z, floorY, selector);
     }
 
-    protected boolean generateLegOrChain(WorldGenLevel world, Random random, BoundingBox box, int x, int z, BlockStateRandomizer selector) {
-        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos(x, -1, z);
-        BlockState state = this.getBlock(world, mutable.getX(), mutable.getY(), mutable.getZ(), box);
-        boolean lavaBelow = false;
-        while (getWorldY(mutable.getY()) > world.getMinBuildHeight() + 1 && isReplaceableByStructures(state)) {
-            if (state.is(Blocks.LAVA)) {
-                lavaBelow = true;
-                break;
-            }
-            mutable.move(Direction.DOWN);
-            state = this.getBlock(world, mutable.getX(), mutable.getY(), mutable.getZ(), box);
-        }
+    protected boolean generateLegOrChain(WorldGenLevel world, Random random, BoundingBox box, int x, int z, BlockStateSampler selector) {
+        BlockPos.MutableBlockPos mutable = this.getWorldPos(new BlockPos.MutableBlockPos(), x, -1, z);
+        int minY = world.getMinBuildHeight() + 2;
+        int floorY = scanColumnDown(world, box, mutable, minY, state -> this.isReplaceableByStructures(state) && !state.is(Blocks.LAVA));
+        boolean lavaBelow = floorY >= minY && world.getBlockState(mutable.setY(floorY)).is(Blocks.LAVA);
 
         // If lava below, generate chain up. Else, generate leg as normal.
         if (lavaBelow) {
-            mutable = this.getWorldPos(x, 0, z);
+            this.getWorldPos(mutable, x, 0, z);
             if (!boundingBox.isInside(mutable)) return false;
 
             int realChainY = this.getWorldY(0);
-            int length = 1;
-            boolean canGenerateChain = true;
-
-            while (canGenerateChain) {
-                boolean currBlockCanBeReplaced;
-                if (canGenerateChain) {
-                    mutable.setY(realChainY + length);
-                    BlockState currBlock = world.getBlockState(mutable);
-                    currBlockCanBeReplaced = this.isReplaceableByStructures(currBlock);
-                    if (!currBlockCanBeReplaced && this.canHangChainBelow(world, mutable, currBlock)) {
-                        world.setBlock(mutable.setY(realChainY + 1), this.config.blockStates.supportBlockState, 2);
-                        fillColumnBetween(world, Blocks.CHAIN.defaultBlockState(), mutable, realChainY + 2, realChainY + length);
-                        return false;
-                    }
-                    canGenerateChain = length <= 50 && currBlockCanBeReplaced && mutable.getY() < world.getMaxBuildHeight() - 1;
-                }
-                ++length;
+            int ceilingY = findChainCeiling(world, mutable, realChainY);
+            if (ceilingY != NO_CEILING) {
+                world.setBlock(mutable.setY(realChainY + 1), this.config.blockStates.supportBlockState, 2);
+                MineshaftMetrics.BLOCKS_WRITTEN.increment();
+                fillColumnBetween(world, Blocks.CHAIN.defaultBlockState(), mutable, realChainY + 2, ceilingY);
             }
-        } else {
-            generateLeg(world, random, box, x, z, selector);
-            return true;
+            return false;
         }
 
-        return false; // Return true if leg generated, false otherwise
+        placeLeg(world, random, box, x, z, floorY, selector);
+        return true; // Return true if leg generated, false otherwise
     }
 
     protected void generatePillarDownOrChainUp(WorldGenLevel world, Random random, BoundingBox boundingBox, int x, int z, int pillarStartY, int chainStartY, BlockState chainBlock) {
@@ -303,36 +323,21 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
 
         int realPillarY = this.getWorldY(pillarStartY);
         int realChainY = this.getWorldY(chainStartY);
-        int length = 1;
-        boolean canGenerateLeg = true;
-        boolean canGenerateChain = true;
-
-        while (canGenerateLeg || canGenerateChain) {
-            boolean currBlockCanBeReplaced;
-
-            if (canGenerateLeg) {
-                mutable.setY(realPillarY - length);
-                BlockState currBlock = world.getBlockState(mutable);
-                currBlockCanBeReplaced = this.isReplaceableByStructures(currBlock) && !currBlock.is(Blocks.LAVA);
-                if (!currBlockCanBeReplaced && this.canPlaceColumnOnTopOf(currBlock)) { // if we've hit solid or lava, and we can place a column at this position
-                    fillColumnBetween(world, this.config.blockStates.smallLegBlockState, mutable, realPillarY - length + 1, realPillarY);
-                    return;
-                }
-                canGenerateLeg = length <= 20 && currBlockCanBeReplaced && mutable.getY() > world.getMinBuildHeight() + 1;
-            }
 
-            if (canGenerateChain) {
-                mutable.setY(realChainY + length);
-                BlockState currBlock = world.getBlockState(mutable);
-                currBlockCanBeReplaced = this.isReplaceableByStructures(currBlock);
-                if (!currBlockCanBeReplaced && this.canHangChainBelow(world, mutable, currBlock)) {
-                    world.setBlock(mutable.setY(realChainY + 1), chainBlock, 2);
-                    fillColumnBetween(world, Blocks.CHAIN.defaultBlockState(), mutable, realChainY + 2, realChainY + length);
-                    return;
-                }
-                canGenerateChain = length <= 50 && currBlockCanBeReplaced && mutable.getY() < world.getMaxBuildHeight() - 1;
-            }
-            ++length;
+        // The pillar looks up to 21 blocks down for something to stand on, stopping early at lava
+        int pillarMinY = Math.max(realPillarY - 21, Math.min(realPillarY - 1, world.getMinBuildHeight() + 1));
+        int floorY = ColumnScanner.scanDown(world, mutable.getX(), mutable.getZ(), realPillarY - 1, pillarMinY,
+                state -> this.isReplaceableByStructures(state) && !state.is(Blocks.LAVA));
+        boolean canGenerateLeg = floorY >= pillarMinY && this.canPlaceColumnOnTopOf(world.getBlockState(mutable.setY(floorY)));
+        int ceilingY = findChainCeiling(world, mutable, realChainY);
+
+        // Whichever end is closer wins, with the pillar winning ties
+        if (canGenerateLeg && (ceilingY == NO_CEILING || realPillarY - floorY <= ceilingY - realChainY)) {
+            fillColumnBetween(world, this.config.blockStates.smallLegBlockState, mutable, floorY + 1, realPillarY);
+        } else if (ceilingY != NO_CEILING) {
+            world.setBlock(mutable.setY(realChainY + 1), chainBlock, 2);
+            MineshaftMetrics.BLOCKS_WRITTEN.increment();
+            fillColumnBetween(world, Blocks.CHAIN.defaultBlockState(), mutable, realChainY + 2, ceilingY);
         }
     }
 
@@ -340,6 +345,47 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
         this.generatePillarDownOrChainUp(world, random, boundingBox, x, z, y, y, this.config.blockStates.supportBlockState);
     }
 
+    /**
+     * Scans down the column through blocks matching the predicate, from the position of the mutable down to minY in world coordinates.
+     * Blocks outside the box count as air, the same as {@link #getBlock} returns.
+     *
+     * @return the world y of the first block that doesn't match, or minY - 1 if there is none
+     */
+    private static int scanColumnDown(WorldGenLevel world, BoundingBox box, BlockPos.MutableBlockPos mutable, int minY, Predicate<BlockState> matches) {
+        if (mutable.getX() < box.minX() || mutable.getX() > box.maxX() || mutable.getZ() < box.minZ() || mutable.getZ() > box.maxZ()) {
+            return minY - 1;
+        }
+        int scanMinY = Math.max(minY, box.minY());
+        int scanMaxY = Math.min(mutable.getY(), box.maxY());
+        int floorY = ColumnScanner.scanDown(world, mutable.getX(), mutable.getZ(), scanMaxY, scanMinY, matches);
+        MineshaftMetrics.LEG_SCAN_DEPTH.record(scanMaxY - floorY);
+        return floorY >= scanMinY ? floorY : minY - 1;
+    }
+
+    /**
+     * Places leg blocks from just below the piece down to, but not including, the given world y.
+     * One block is drawn from the selector per position, even outside the box.
+     */
+    private void placeLeg(WorldGenLevel world, Random random, BoundingBox box, int x, int z, int floorY, BlockStateSampler selector) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        for (int y = -1; this.getWorldY(y) > floorY; y--) {
+            this.placeBlock(world, selector.get(random), mutable, x, y, z, box);
+        }
+    }
+
+    /**
+     * Looks up to 51 blocks above chainY for a ceiling a chain can hang from, using the mutable's x and z.
+     *
+     * @return the world y of the ceiling, or {@link #NO_CEILING} if there is none
+     */
+    private int findChainCeiling(WorldGenLevel world, BlockPos.MutableBlockPos mutable, int chainY) {
+        int maxY = Math.min(chainY + 51, Math.max(chainY + 1, world.getMaxBuildHeight() - 1));
+        int ceilingY = ColumnScanner.scanUp(world, mutable.getX(), mutable.getZ(), chainY + 1, maxY, this::isReplaceableByStructures);
+        if (ceilingY > maxY) return NO_CEILING;
+        mutable.setY(ceilingY);
+        return this.canHangChainBelow(world, mutable, world.getBlockState(mutable)) ? ceilingY : NO_CEILING;
+    }
+
     private boolean canPlaceColumnOnTopOf(BlockState blockState) {
         return !blockState.is(Blocks.RAIL) && !blockState.is(Blocks.LAVA);
     }
@@ -349,16 +395,7 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
     }
 
     protected boolean isReplaceableByStructures(BlockState blockState) {
-        return blockState.isAir() ||
-                blockState.getMaterial().isLiquid() ||
-                blockState.is(Blocks.GLOW_LICHEN) ||
-                blockState.is(Blocks.SEAGRASS) ||
-                blockState.is(Blocks.TALL_SEAGRASS) ||
-                blockState.is(Blocks.POINTED_DRIPSTONE) ||
-                blockState.is(Blocks.CAVE_VINES) ||
-                blockState.is(Blocks.CAVE_VINES_PLANT) ||
-                blockState.is(Blocks.MOSS_CARPET) ||
-                blockState.is(Blocks.SNOW);
+        return BlockStateFlags.isReplaceable(blockState);
     }
 
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -369,13 +406,15 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
      * Replaces each block in the provided area with the provided BlockState.
      */
     protected void fill(WorldGenLevel world, BoundingBox boundingBox, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState) {
+        if (this.writeSections(world, boundingBox, minX, minY, minZ, maxX, maxY, maxZ, blockState, false)) return;
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
                     // Don't allow overwriting placed chains
-                    if (this.getBlock(world, x, y, z, boundingBox) == Blocks.CHAIN.defaultBlockState()) continue;
-                    if (blockState.canSurvive(world, this.getWorldPos(x, y, z))) {
-                        this.placeBlock(world, blockState, x, y, z, boundingBox);
+                    if (this.getBlock(world, mutable, x, y, z, boundingBox) == Blocks.CHAIN.defaultBlockState()) continue;
+                    if (blockState.canSurvive(world, this.getWorldPos(mutable, x, y, z))) {
+                        this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
                     }
                 }
             }
@@ -383,17 +422,18 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
     }
 
     /**
-     * Replaces each block in the provided area with blocks determined by the provided BlockStateRandomizer.
+     * Replaces each block in the provided area with blocks determined by the provided BlockStateSampler.
      */
-    protected void fill(WorldGenLevel world, BoundingBox boundingBox, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateRandomizer selector) {
+    protected void fill(WorldGenLevel world, BoundingBox boundingBox, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateSampler selector) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
                     // Don't allow overwriting placed chains
-                    if (this.getBlock(world, x, y, z, boundingBox) == Blocks.CHAIN.defaultBlockState()) continue;
+                    if (this.getBlock(world, mutable, x, y, z, boundingBox) == Blocks.CHAIN.defaultBlockState()) continue;
                     BlockState blockState = selector.get(random);
-                    if (blockState.canSurvive(world, this.getWorldPos(x, y, z))) {
-                        this.placeBlock(world, blockState, x, y, z, boundingBox);
+                    if (blockState.canSurvive(world, this.getWorldPos(mutable, x, y, z))) {
+                        this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
                     }
                 }
             }
@@ -404,13 +444,15 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
      * Replaces each air block in the provided area with the provided BlockState.
      */
     protected void replaceAirOrChains(WorldGenLevel world, BoundingBox boundingBox, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState) {
+        if (this.writeSections(world, boundingBox, minX, minY, minZ, maxX, maxY, maxZ, blockState, true)) return;
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
-                    BlockState currState = this.getBlockAtFixed(world, x, y, z, boundingBox);
-                    if (currState != null && (currState.isAir() || currState == Blocks.CHAIN.defaultBlockState())) {
-                        if (blockState.canSurvive(world, this.getWorldPos(x, y, z))) {
-                            this.placeBlock(world, blockState, x, y, z, boundingBox);
+                    BlockState currState = this.getBlockAtFixed(world, mutable, x, y, z, boundingBox);
+                    if (currState != null && BlockStateFlags.isAirOrChain(currState)) {
+                        if (blockState.canSurvive(world, this.getWorldPos(mutable, x, y, z))) {
+                            this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
                         }
                     }
                 }
@@ -419,17 +461,18 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
     }
 
     /**
-     * Replaces each air block in the provided area with blocks determined by the provided BlockStateRandomizer.
+     * Replaces each air block in the provided area with blocks determined by the provided BlockStateSampler.
      */
-    protected void replaceAirOrChains(WorldGenLevel world, BoundingBox boundingBox, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateRandomizer selector) {
+    protected void replaceAirOrChains(WorldGenLevel world, BoundingBox boundingBox, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateSampler selector) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
-                    BlockState currState = this.getBlockAtFixed(world, x, y, z, boundingBox);
-                    if (currState != null && (currState.isAir() || currState == Blocks.CHAIN.defaultBlockState())) {
+                    BlockState currState = this.getBlockAtFixed(world, mutable, x, y, z, boundingBox);
+                    if (currState != null && BlockStateFlags.isAirOrChain(currState)) {
                         BlockState blockState = selector.get(random);
-                        if (blockState.canSurvive(world, this.getWorldPos(x, y, z))) {
-                            this.placeBlock(world, blockState, x, y, z, boundingBox);
+                        if (blockState.canSurvive(world, this.getWorldPos(mutable, x, y, z))) {
+                            this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
                         }
                     }
                 }
@@ -437,16 +480,150 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
         }
     }
 
+    /**
+     * Bulk version of {@link #fill} and {@link #replaceAirOrChains} for a single BlockState.
+     * Blocks are written straight into the chunk's sections, skipping the per-block position, bounds and chunk lookups
+     * and the bookkeeping in setBlock, which is a no-op for simple states in a chunk that hasn't finished features yet.
+     * Positions are still visited in the same order, so canSurvive checks see the same neighbors.
+     *
+     * @return true if the area was handled, false if the caller should fall back to placing blocks one at a time
+     */
+    private boolean writeSections(WorldGenLevel world, BoundingBox boundingBox, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState, boolean replaceAirOrChainsOnly) {
+        if (!canWriteSectionsDirectly(blockState)) return false;
+
+        // Clip the area to the box once, in world coordinates
+        int x0 = this.getWorldX(minX, minZ), x1 = this.getWorldX(maxX, maxZ),
+            z0 = this.getWorldZ(minX, minZ), z1 = this.getWorldZ(maxX, maxZ);
+        int clipMinX = Math.max(Math.min(x0, x1), boundingBox.minX()),
+            clipMaxX = Math.min(Math.max(x0, x1), boundingBox.maxX()),
+            clipMinY = Math.max(this.getWorldY(minY), Math.max(boundingBox.minY(), world.getMinBuildHeight())),
+            clipMaxY = Math.min(this.getWorldY(maxY), Math.min(boundingBox.maxY(), world.getMaxBuildHeight() - 1)),
+            clipMinZ = Math.max(Math.min(z0, z1), boundingBox.minZ()),
+            clipMaxZ = Math.min(Math.max(z0, z1), boundingBox.maxZ());
+        if (clipMinX > clipMaxX || clipMinY > clipMaxY || clipMinZ > clipMaxZ) return true; // Nothing inside the box
+        if (clipMinX >> 4 != clipMaxX >> 4 || clipMinZ >> 4 != clipMaxZ >> 4) return false;
+
+        // Only proto chunks still being generated can be written to directly.
+        // Once a chunk reaches the features status, block changes must also go through the light engine.
+        ChunkAccess chunk = world.getChunk(clipMinX >> 4, clipMinZ >> 4);
+        if (!(chunk instanceof ProtoChunk) || chunk instanceof ImposterProtoChunk || chunk.getStatus().isOrAfter(ChunkStatus.FEATURES)) return false;
+        EnumSet<Heightmap.Types> heightmapTypes = chunk.getStatus().heightmapsAfter();
+        for (Heightmap.Types type : heightmapTypes) {
+            if (!chunk.hasPrimedHeightmap(type)) return false;
+        }
+
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        int written = 0;
+        for (int x = minX; x <= maxX; ++x) {
+            for (int y = minY; y <= maxY; ++y) {
+                int worldY = this.getWorldY(y);
+                if (worldY < clipMinY || worldY > clipMaxY) continue;
+                LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(worldY));
+                for (int z = minZ; z <= maxZ; ++z) {
+                    int worldX = this.getWorldX(x, z), worldZ = this.getWorldZ(x, z);
+                    if (worldX < clipMinX || worldX > clipMaxX || worldZ < clipMinZ || worldZ > clipMaxZ) continue;
+
+                    int localX = worldX & 15, localY = worldY & 15, localZ = worldZ & 15;
+                    BlockState currState = section.getBlockState(localX, localY, localZ);
+                    if (replaceAirOrChainsOnly) {
+                        if (!BlockStateFlags.isAirOrChain(currState)) continue;
+                    } else {
+                        // Don't allow overwriting placed chains
+                        if (currState == Blocks.CHAIN.defaultBlockState()) continue;
+                    }
+
+                    mutable.set(worldX, worldY, worldZ);
+                    if (!blockState.canSurvive(world, mutable)) continue;
+
+                    // Replacing block entities or POIs, or placing a state that needs post-processing here, needs the full setBlock
+                    if (currState.hasBlockEntity() || PoiType.forState(currState).isPresent() || blockState.hasPostProcess(world, mutable)) {
+                        this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
+                        continue;
+                    }
+
+                    section.setBlockState(localX, localY, localZ, blockState, false);
+                    for (Heightmap.Types type : heightmapTypes) {
+                        chunk.getOrCreateHeightmapUnprimed(type).update(localX, worldY, localZ, blockState);
+                    }
+                    written++;
+                }
+            }
+        }
+        MineshaftMetrics.BLOCKS_WRITTEN.add(written);
+        return true;
+    }
+
+    /**
+     * Whether placing this state is fully described by writing it into a chunk section:
+     * it is unaffected by this piece's mirror and rotation, holds no block entity or fluid, emits no light, is not a POI
+     * and doesn't need shape updates.
+     */
+    private static boolean canWriteSectionsDirectly(BlockState blockState) {
+        return !blockState.hasBlockEntity()
+                && blockState.getFluidState().isEmpty()
+                && blockState.getLightEmission() == 0
+                && !SHAPE_CHECK_BLOCKS.contains(blockState.getBlock())
+                && blockState.rotate(Rotation.CLOCKWISE_90) == blockState
+                && blockState.mirror(Mirror.LEFT_RIGHT) == blockState
+                && blockState.mirror(Mirror.FRONT_BACK) == blockState
+                && PoiType.forState(blockState).isEmpty();
+    }
+
     protected static void fillColumnBetween(WorldGenLevel worldGenLevel, BlockState blockState, BlockPos.MutableBlockPos mutableBlockPos, int minY, int maxY) {
         for (int y = minY; y < maxY; ++y) {
             worldGenLevel.setBlock(mutableBlockPos.setY(y), blockState, 2);
         }
+        MineshaftMetrics.BLOCKS_WRITTEN.add(Math.max(0, maxY - minY));
     }
 
-    protected static void fillColumnBetween(WorldGenLevel worldGenLevel, Random random, BlockStateRandomizer selector, BlockPos.MutableBlockPos mutableBlockPos, int minY, int maxY) {
+    protected static void fillColumnBetween(WorldGenLevel worldGenLevel, Random random, BlockStateSampler selector, BlockPos.MutableBlockPos mutableBlockPos, int minY, int maxY) {
         for (int y = minY; y < maxY; ++y) {
             worldGenLevel.setBlock(mutableBlockPos.setY(y), selector.get(random), 2);
         }
+        MineshaftMetrics.BLOCKS_WRITTEN.add(Math.max(0, maxY - minY));
+    }
+
+    /**
+     * Adds an entity to the world, counting it in {@link MineshaftMetrics}.
+     */
+    protected void addEntity(WorldGenLevel world, Entity entity) {
+        world.addFreshEntity(entity);
+        MineshaftMetrics.ENTITIES_SPAWNED.increment();
+    }
+
+    /**
+     * Adds a minecart centered on the given block, counting it in {@link MineshaftMetrics}.
+     * While the chunk is still a proto chunk, the minecart is written straight into the chunk's entity list as NBT,
+     * which is all a proto chunk keeps of a full entity anyway. It becomes a real entity once the chunk is promoted,
+     * so no entity bound to the server level is built on the worldgen thread.
+     *
+     * @param lootTable the loot table of a chest minecart, or null for none
+     */
+    protected void addMinecart(WorldGenLevel world, EntityType<?> type, BlockPos blockPos, @Nullable ResourceLocation lootTable, long lootTableSeed) {
+        ListTag position = new ListTag();
+        position.add(DoubleTag.valueOf((float) blockPos.getX() + 0.5F));
+        position.add(DoubleTag.valueOf((float) blockPos.getY() + 0.5F));
+        position.add(DoubleTag.valueOf((float) blockPos.getZ() + 0.5F));
+        CompoundTag entityTag = new CompoundTag();
+        entityTag.putString("id", Registry.ENTITY_TYPE.getKey(type).toString());
+        entityTag.put("Pos", position);
+        if (lootTable != null) {
+            entityTag.putString("LootTable", lootTable.toString());
+            entityTag.putLong("LootTableSeed", lootTableSeed);
+        }
+
+        ChunkAccess chunk = world.getChunk(blockPos);
+        if (chunk instanceof ProtoChunk protoChunk && !(chunk instanceof ImposterProtoChunk)) {
+            protoChunk.addEntity(entityTag);
+            MineshaftMetrics.ENTITIES_SPAWNED.increment();
+            return;
+        }
+
+        // The chunk is already loaded, so the minecart has to be a real entity
+        Entity entity = EntityType.loadEntityRecursive(entityTag, world.getLevel(), loaded -> loaded);
+        if (entity != null) {
+            this.addEntity(world, entity);
+        }
     }
 
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -457,11 +634,20 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
      * Has a chance of replacing each block in the provided area with the provided BlockState.
      */
     protected void chanceFill(WorldGenLevel world, BoundingBox boundingBox, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        if (isFastRng(random)) {
+            forEachSampledCell(random, chance, minX, minY, minZ, maxX, maxY, maxZ, (x, y, z) -> {
+                if (blockState.canSurvive(world, this.getWorldPos(mutable, x, y, z))) {
+                    this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
+                }
+            });
+            return;
+        }
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
-                    if (random.nextFloat() < chance && blockState.canSurvive(world, this.getWorldPos(x, y, z))) {
-                        this.placeBlock(world, blockState, x, y, z, boundingBox);
+                    if (random.nextFloat() < chance && blockState.canSurvive(world, this.getWorldPos(mutable, x, y, z))) {
+                        this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
                     }
                 }
             }
@@ -469,14 +655,20 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
     }
 
     /**
-     * Has a chance of replacing each block in the provided area with a block determined by the provided BlockStateRandomizer.
+     * Has a chance of replacing each block in the provided area with a block determined by the provided BlockStateSampler.
      */
-    protected void chanceFill(WorldGenLevel world, BoundingBox boundingBox, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateRandomizer selector) {
+    protected void chanceFill(WorldGenLevel world, BoundingBox boundingBox, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateSampler selector) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        if (isFastRng(random)) {
+            forEachSampledCell(random, chance, minX, minY, minZ, maxX, maxY, maxZ, (x, y, z) ->
+                    this.placeBlock(world, selector.get(random), mutable, x, y, z, boundingBox));
+            return;
+        }
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
                     if (random.nextFloat() < chance) {
-                        this.placeBlock(world, selector.get(random), x, y, z, boundingBox);
+                        this.placeBlock(world, selector.get(random), mutable, x, y, z, boundingBox);
                     }
                 }
             }
@@ -487,13 +679,23 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
      * Has a chance of replacing each air block in the provided area with the provided BlockState.
      */
     protected void chanceReplaceAir(WorldGenLevel world, BoundingBox boundingBox, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        if (isFastRng(random)) {
+            forEachSampledCell(random, chance, minX, minY, minZ, maxX, maxY, maxZ, (x, y, z) -> {
+                BlockState currState = this.getBlockAtFixed(world, mutable, x, y, z, boundingBox);
+                if (currState != null && currState.isAir()) {
+                    this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
+                }
+            });
+            return;
+        }
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
                     if (random.nextFloat() < chance) {
-                        BlockState currState = this.getBlockAtFixed(world, x, y, z, boundingBox);
+                        BlockState currState = this.getBlockAtFixed(world, mutable, x, y, z, boundingBox);
                         if (currState != null && currState.isAir()) {
-                            this.placeBlock(world, blockState, x, y, z, boundingBox);
+                            this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
                         }
                     }
                 }
@@ -506,13 +708,14 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
      * Guaranteed to always replace liquid.
      */
     protected void chanceReplaceNonAir(WorldGenLevel world, BoundingBox boundingBox, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
-                    BlockState currState = this.getBlockAtFixed(world, x, y, z, boundingBox);
+                    BlockState currState = this.getBlockAtFixed(world, mutable, x, y, z, boundingBox);
                     if (currState != null && currState != Blocks.CHAIN.defaultBlockState()) {
-                        if ((currState.getMaterial() == Material.WATER || currState.getMaterial() == Material.LAVA) || (random.nextFloat() < chance && !currState.isAir())) {
-                            this.placeBlock(world, blockState, x, y, z, boundingBox);
+                        if (BlockStateFlags.isLiquid(currState) || (random.nextFloat() < chance && !currState.isAir())) {
+                            this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
                         }
                     }
                 }
@@ -521,28 +724,20 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
     }
 
     /**
-     * Has a chance of replacing each non-air block in the provided area with a block determined by the provided BlockStateRandomizer.
+     * Has a chance of replacing each non-air block in the provided area with a block determined by the provided BlockStateSampler.
      * Guaranteed to always replace liquid.
      */
-    protected void chanceReplaceNonAir(WorldGenLevel world, BoundingBox boundingBox, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateRandomizer selector) {
+    protected void chanceReplaceNonAir(WorldGenLevel world, BoundingBox boundingBox, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockStateSampler selector) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
-                    BlockState currState = this.getBlockAtFixed(world, x, y, z, boundingBox);
+                    BlockState currState = this.getBlockAtFixed(world, mutable, x, y, z, boundingBox);
                     if (currState != null && currState != Blocks.CHAIN.defaultBlockState()) {
-                        if ((currState.getMaterial() == Material.WATER || currState.getMaterial() == Material.LAVA) || (random.nextFloat() < chance && !currState.isAir())) {
-                            // Select random block state
-                            BlockState blockState = selector.get(random);
-
-                            // Don't place air where liquid was. This helps to avoid floating water.
-                            if (currState.getMaterial() == Material.WATER || currState.getMaterial() == Material.LAVA) {
-                                int numAttempts = 0;
-                                while ((blockState == Blocks.AIR.defaultBlockState() || blockState == Blocks.CAVE_AIR.defaultBlockState()) && numAttempts < 10) {
-                                    blockState = selector.get(random);
-                                    numAttempts++;
-                                }
-                            }
-                            this.placeBlock(world, blockState, x, y, z, boundingBox);
+                        if (BlockStateFlags.isLiquid(currState) || (random.nextFloat() < chance && !currState.isAir())) {
+                            // Select random block state. Don't place air where liquid was.
+                            BlockState blockState = BlockStateFlags.isLiquid(currState) ? selector.getNonAir(random) : selector.get(random);
+                            this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
                         }
                     }
                 }
@@ -554,13 +749,23 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
      * Has a chance of replacing each solid block in the provided area with the provided BlockState.
      */
     protected void chanceReplaceSolid(WorldGenLevel world, BoundingBox boundingBox, Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState blockState) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        if (isFastRng(random)) {
+            forEachSampledCell(random, chance, minX, minY, minZ, maxX, maxY, maxZ, (x, y, z) -> {
+                BlockState currState = this.getBlockAtFixed(world, mutable, x, y, z, boundingBox);
+                if (currState != null && BlockStateFlags.isSolid(currState)) {
+                    this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
+                }
+            });
+            return;
+        }
         for (int x = minX; x <= maxX; ++x) {
             for (int y = minY; y <= maxY; ++y) {
                 for (int z = minZ; z <= maxZ; ++z) {
                     if (random.nextFloat() < chance) {
-                        BlockState currState = this.getBlockAtFixed(world, x, y, z, boundingBox);
-                        if (currState != null && currState != Blocks.CHAIN.defaultBlockState() && !NON_SOLID_MATERIALS.contains(currState.getMaterial())) {
-                            this.placeBlock(world, blockState, x, y, z, boundingBox);
+                        BlockState currState = this.getBlockAtFixed(world, mutable, x, y, z, boundingBox);
+                        if (currState != null && BlockStateFlags.isSolid(currState)) {
+                            this.placeBlock(world, blockState, mutable, x, y, z, boundingBox);
                         }
                     }
                 }
@@ -568,19 +773,44 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
         }
     }
 
+    /**
+     * Fast RNG version of the per-cell chance roll used by the methods above.
+     * Rather than rolling every cell, the number of cells until the next success is drawn from a geometric distribution,
+     * so the cost grows with the number of hits instead of the size of the area.
+     * Cells are numbered in the same x, y, z order the regular loops visit them.
+     */
+    private static void forEachSampledCell(Random random, float chance, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, CellAction action) {
+        if (chance <= 0 || minX > maxX || minY > maxY || minZ > maxZ) return;
+        double logMiss = SkipSampling.logMiss(chance);
+        int sizeY = maxY - minY + 1;
+        int sizeZ = maxZ - minZ + 1;
+        int cells = (maxX - minX + 1) * sizeY * sizeZ;
+        for (long i = SkipSampling.nextSkip(random, logMiss); i < cells; i += 1 + SkipSampling.nextSkip(random, logMiss)) {
+            int cell = (int) i;
+            action.accept(minX + cell / (sizeZ * sizeY), minY + (cell / sizeZ) % sizeY, minZ + cell % sizeZ);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CellAction {
+        void accept(int x, int y, int z);
+    }
+
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
      *                                      BLOCK SET/GET                                      *
      * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
 
     protected void chanceAddBlock(WorldGenLevel world, Random random, float chance, BlockState block, int x, int y, int z, BoundingBox boundingBox) {
-        if (random.nextFloat() < chance && block.canSurvive(world, this.getWorldPos(x, y, z))) {
-            this.placeBlock(world, block, x, y, z, boundingBox);
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        if (random.nextFloat() < chance && block.canSurvive(world, this.getWorldPos(mutable, x, y, z))) {
+            this.placeBlock(world, block, mutable, x, y, z, boundingBox);
         }
     }
 
     protected void chanceReplaceAir(WorldGenLevel world, Random random, float chance, BlockState block, int x, int y, int z, BoundingBox boundingBox) {
-        if (random.nextFloat() < chance && block.canSurvive(world, this.getWorldPos(x, y, z)) && block.is(Blocks.AIR) || block.is(Blocks.CAVE_AIR)) {
-            this.placeBlock(world, block, x, y, z, boundingBox);
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        if (random.nextFloat() < chance && block.canSurvive(world, this.getWorldPos(mutable, x, y, z)) && block.is(Blocks.AIR) || block.is(Blocks.CAVE_AIR)) {
+            this.placeBlock(world, block, mutable, x, y, z, boundingBox);
         }
     }
 
@@ -590,7 +820,61 @@ public abstract class BetterMineshaftPiece extends StructurePiece {
      * @return the block at the given position, or null if it is outside of the BoundingBox
      */
     protected BlockState getBlockAtFixed(BlockGetter blockGetter, int x, int y, int z, BoundingBox boundingBox) {
-        BlockPos blockPos = this.getWorldPos(x, y, z);
-        return !boundingBox.isInside(blockPos) ? null : blockGetter.getBlockState(blockPos);
+        return this.getBlockAtFixed(blockGetter, new BlockPos.MutableBlockPos(), x, y, z, boundingBox);
+    }
+
+    /**
+     * Version of {@link #getBlockAtFixed(BlockGetter, int, int, int, BoundingBox)} that uses the given position
+     * instead of allocating one. The position is left at the block's world coordinates.
+     */
+    protected BlockState getBlockAtFixed(BlockGetter blockGetter, BlockPos.MutableBlockPos mutable, int x, int y, int z, BoundingBox boundingBox) {
+        this.getWorldPos(mutable, x, y, z);
+        return !boundingBox.isInside(mutable) ? null : blockGetter.getBlockState(mutable);
+    }
+
+    /*
+     * The overloads below mirror StructurePiece's getWorldPos, getBlock and placeBlock,
+     * but take a MutableBlockPos to write the world position into so that loops over a piece's blocks don't allocate.
+     * Each leaves the position at the block's world coordinates.
+     */
+
+    /**
+     * Routed through the MutableBlockPos overload, which behaves the same, so every placed block is counted in one place.
+     */
+    @Override
+    protected void placeBlock(WorldGenLevel world, BlockState blockState, int x, int y, int z, BoundingBox boundingBox) {
+        this.placeBlock(world, blockState, new BlockPos.MutableBlockPos(), x, y, z, boundingBox);
+    }
+
+    protected BlockPos.MutableBlockPos getWorldPos(BlockPos.MutableBlockPos mutable, int x, int y, int z) {
+        return mutable.set(this.getWorldX(x, z), this.getWorldY(y), this.getWorldZ(x, z));
+    }
+
+    protected BlockState getBlock(BlockGetter blockGetter, BlockPos.MutableBlockPos mutable, int x, int y, int z, BoundingBox boundingBox) {
+        this.getWorldPos(mutable, x, y, z);
+        return !boundingBox.isInside(mutable) ? AIR : blockGetter.getBlockState(mutable);
+    }
+
+    protected void placeBlock(WorldGenLevel world, BlockState blockState, BlockPos.MutableBlockPos mutable, int x, int y, int z, BoundingBox boundingBox) {
+        this.getWorldPos(mutable, x, y, z);
+        if (!boundingBox.isInside(mutable) || !this.canBeReplaced(world, x, y, z, boundingBox)) return;
+
+        if (this.getMirror() != Mirror.NONE) {
+            blockState = blockState.mirror(this.getMirror());
+        }
+        if (this.getRotation() != Rotation.NONE) {
+            blockState = blockState.rotate(this.getRotation());
+        }
+
+        world.setBlock(mutable, blockState, 2);
+        MineshaftMetrics.BLOCKS_WRITTEN.increment();
+        FluidState fluidState = world.getFluidState(mutable);
+        if (!fluidState.isEmpty()) {
+            // Scheduled ticks keep their position, so this one needs its own copy
+            world.scheduleTick(mutable.immutable(), fluidState.getType(), 0);
+        }
+        if (SHAPE_CHECK_BLOCKS.contains(blockState.getBlock())) {
+            world.getChunk(mutable).markPosForPostprocessing(mutable);
+        }
     }
 }
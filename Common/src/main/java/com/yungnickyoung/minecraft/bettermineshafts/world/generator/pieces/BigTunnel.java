@@ -1,29 +1,25 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
 
-import com.google.common.collect.Lists;
-import com.mojang.datafixers.util.Pair;
 import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.BetterMineshaftStructureFeature;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftGenerator;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftStructurePieceType;
-import com.yungnickyoung.minecraft.yungsapi.world.BlockStateRandomizer;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BlockStateSampler;
 import com.yungnickyoung.minecraft.yungsapi.world.BoundingBoxHelper;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.IntArrayTag;
-import net.minecraft.nbt.IntTag;
 import net.minecraft.nbt.ListTag;
-import net.minecraft.world.entity.vehicle.MinecartChest;
-import net.minecraft.world.entity.vehicle.MinecartTNT;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.StructureFeatureManager;
 import net.minecraft.world.level.WorldGenLevel;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.properties.BlockStateProperties;
-import net.minecraft.world.level.block.state.properties.WallSide;
 import net.minecraft.world.level.chunk.ChunkGenerator;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.level.levelgen.structure.StructurePiece;
@@ -32,16 +28,19 @@ import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSeriali
 import net.minecraft.world.level.material.Material;
 import net.minecraft.world.level.storage.loot.BuiltInLootTables;
 
-import java.util.List;
 import java.util.Random;
 
 public class BigTunnel extends BetterMineshaftPiece {
-    private final List<BlockPos> smallShaftLeftEntrances = Lists.newLinkedList();
-    private final List<BlockPos> smallShaftRightEntrances = Lists.newLinkedList();
-    private final List<BoundingBox> sideRoomEntrances = Lists.newLinkedList();
-    private final List<Integer> bigSupports = Lists.newLinkedList(); // local z coords
-    private final List<Integer> smallSupports = Lists.newLinkedList(); // local z coords
-    private final List<Pair<Integer, Integer>> gravelDeposits = Lists.newLinkedList(); // Pair<z coordinate, side> where side 0 = left, 1 = right
+    // Layout is stored as bitmasks over the local z coordinate, which is always less than 32.
+    // Bit z is set if the feature starts at that z. Iterating from the lowest bit visits them in the order they were built.
+    private int smallShaftLeftEntrances;  // Entrances at local x = 0
+    private int smallShaftRightEntrances; // Entrances at local x = SECONDARY_AXIS_LEN - 2
+    private int sideRoomEntrancesLeft;    // Side rooms built by buildSideRoomsLeft
+    private int sideRoomEntrancesRight;   // Side rooms built by buildSideRoomsRight
+    private int bigSupports;
+    private int smallSupports;
+    private int gravelDepositsLeft;
+    private int gravelDepositsRight;
     private static final int
         SECONDARY_AXIS_LEN = 9,
         Y_AXIS_LEN = 8,
@@ -50,70 +49,101 @@ public class BigTunnel extends BetterMineshaftPiece {
         LOCAL_X_END = SECONDARY_AXIS_LEN - 1,
         LOCAL_Y_END = Y_AXIS_LEN - 1,
         LOCAL_Z_END = MAIN_AXIS_LEN - 1;
+    private static final BlockState
+        HANGING_LANTERN = Blocks.LANTERN.defaultBlockState().setValue(BlockStateProperties.HANGING, true),
+        POWERED_RAIL = Blocks.POWERED_RAIL.defaultBlockState().setValue(BlockStateProperties.POWERED, true);
+
+    public BigTunnel(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        super(BetterMineshaftStructurePieceType.BIG_TUNNEL, structurePieceSerializationContext, compoundTag);
+
+        if (compoundTag.contains("Layout", Tag.TAG_INT_ARRAY)) {
+            int[] layout = compoundTag.getIntArray("Layout");
+            this.smallShaftLeftEntrances = layout[0];
+            this.smallShaftRightEntrances = layout[1];
+            this.sideRoomEntrancesLeft = layout[2];
+            this.sideRoomEntrancesRight = layout[3];
+            this.bigSupports = layout[4];
+            this.smallSupports = layout[5];
+            this.gravelDepositsLeft = layout[6];
+            this.gravelDepositsRight = layout[7];
+        } else {
+            loadLegacyLayout(compoundTag);
+        }
+    }
 
-    public BigTunnel(CompoundTag compoundTag) {
-        super(BetterMineshaftStructurePieceType.BIG_TUNNEL, compoundTag);
+    public BigTunnel(int chainLength, Random random, BoundingBox blockBox, Direction direction, BetterMineshaftFeatureConfiguration config) {
+        super(BetterMineshaftStructurePieceType.BIG_TUNNEL, chainLength, config, blockBox);
+        this.setOrientation(direction);
+    }
 
-        ListTag listTag1 = compoundTag.getList("SmallShaftLeftEntrances", 11);
-        ListTag listTag2 = compoundTag.getList("SmallShaftRightEntrances", 11);
-        ListTag listTag3 = compoundTag.getList("SideRoomEntrances", 11);
-        ListTag listTag4 = compoundTag.getList("BigSupports", 3);
-        ListTag listTag5 = compoundTag.getList("SmallSupports", 3);
-        ListTag listTag6 = compoundTag.getList("GravelDeposits", 11);
+    @Override
+    protected void addAdditionalSaveData(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        super.addAdditionalSaveData(structurePieceSerializationContext, compoundTag);
+        compoundTag.putIntArray("Layout", new int[]{
+                this.smallShaftLeftEntrances,
+                this.smallShaftRightEntrances,
+                this.sideRoomEntrancesLeft,
+                this.sideRoomEntrancesRight,
+                this.bigSupports,
+                this.smallSupports,
+                this.gravelDepositsLeft,
+                this.gravelDepositsRight});
+    }
 
-        for (int i = 0; i < listTag1.size(); ++i) {
-            this.smallShaftLeftEntrances.add(new BlockPos(listTag1.getIntArray(i)[0], listTag1.getIntArray(i)[1], listTag1.getIntArray(i)[2]));
-        }
+    /**
+     * Reads the layout from the lists of positions and boxes pieces were saved with before the layout was packed into bitmasks.
+     */
+    private void loadLegacyLayout(CompoundTag compoundTag) {
+        ListTag smallShaftLeftTag = compoundTag.getList("SmallShaftLeftEntrances", Tag.TAG_INT_ARRAY);
+        ListTag smallShaftRightTag = compoundTag.getList("SmallShaftRightEntrances", Tag.TAG_INT_ARRAY);
+        ListTag sideRoomTag = compoundTag.getList("SideRoomEntrances", Tag.TAG_INT_ARRAY);
+        ListTag bigSupportTag = compoundTag.getList("BigSupports", Tag.TAG_INT);
+        ListTag smallSupportTag = compoundTag.getList("SmallSupports", Tag.TAG_INT);
+        ListTag gravelDepositTag = compoundTag.getList("GravelDeposits", Tag.TAG_INT_ARRAY);
 
-        for (int i = 0; i < listTag2.size(); ++i) {
-            this.smallShaftRightEntrances.add(new BlockPos(listTag2.getIntArray(i)[0], listTag2.getIntArray(i)[1], listTag2.getIntArray(i)[2]));
+        for (int i = 0; i < smallShaftLeftTag.size(); ++i) {
+            this.smallShaftLeftEntrances |= 1 << smallShaftLeftTag.getIntArray(i)[2];
         }
 
-        for (int i = 0; i < listTag3.size(); ++i) {
-            this.sideRoomEntrances.add(new BoundingBox(listTag3.getIntArray(i)[0], listTag3.getIntArray(i)[1],
-                    listTag3.getIntArray(i)[2], listTag3.getIntArray(i)[3],
-                    listTag3.getIntArray(i)[4], listTag3.getIntArray(i)[5]));
+        for (int i = 0; i < smallShaftRightTag.size(); ++i) {
+            this.smallShaftRightEntrances |= 1 << smallShaftRightTag.getIntArray(i)[2];
         }
 
-        for (int i = 0; i < listTag4.size(); ++i) {
-            this.bigSupports.add(listTag4.getInt(i));
+        for (int i = 0; i < sideRoomTag.size(); ++i) {
+            int[] box = sideRoomTag.getIntArray(i);
+            if (box[0] == this.getSideRoomEntranceX(true)) {
+                this.sideRoomEntrancesLeft |= 1 << box[2];
+            } else {
+                this.sideRoomEntrancesRight |= 1 << box[2];
+            }
         }
 
-        for (int i = 0; i < listTag5.size(); ++i) {
-            this.smallSupports.add(listTag5.getInt(i));
+        for (int i = 0; i < bigSupportTag.size(); ++i) {
+            this.bigSupports |= 1 << bigSupportTag.getInt(i);
         }
 
-        for (int i = 0; i < listTag6.size(); ++i) {
-            this.gravelDeposits.add(new Pair<>(listTag6.getIntArray(i)[0], listTag6.getIntArray(i)[1]));
+        for (int i = 0; i < smallSupportTag.size(); ++i) {
+            this.smallSupports |= 1 << smallSupportTag.getInt(i);
         }
-    }
 
-    public BigTunnel(int chainLength, Random random, BoundingBox blockBox, Direction direction, BetterMineshaftFeatureConfiguration config) {
-        super(BetterMineshaftStructurePieceType.BIG_TUNNEL, chainLength, config, blockBox);
-        this.setOrientation(direction);
+        for (int i = 0; i < gravelDepositTag.size(); ++i) {
+            int[] deposit = gravelDepositTag.getIntArray(i);
+            if (deposit[1] == 0) {
+                this.gravelDepositsLeft |= 1 << deposit[0];
+            } else {
+                this.gravelDepositsRight |= 1 << deposit[0];
+            }
+        }
     }
 
-    @Override
-    protected void addAdditionalSaveData(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
-        super.addAdditionalSaveData(structurePieceSerializationContext, compoundTag);
-        ListTag listTag1 = new ListTag();
-        ListTag listTag2 = new ListTag();
-        ListTag listTag3 = new ListTag();
-        ListTag listTag4 = new ListTag();
-        ListTag listTag5 = new ListTag();
-        ListTag listTag6 = new ListTag();
-        smallShaftLeftEntrances.forEach(pos -> listTag1.add(new IntArrayTag(new int[]{pos.getX(), pos.getY(), pos.getZ()})));
-        smallShaftRightEntrances.forEach(pos -> listTag2.add(new IntArrayTag(new int[]{pos.getX(), pos.getY(), pos.getZ()})));
-        sideRoomEntrances.forEach(blockBox -> listTag3.add(new IntArrayTag(new int[]{blockBox.minX(), blockBox.minY(), blockBox.minZ(), blockBox.maxX(), blockBox.maxY(), blockBox.maxZ()})));
-        bigSupports.forEach(z -> listTag4.add(IntTag.valueOf(z)));
-        smallSupports.forEach(z -> listTag5.add(IntTag.valueOf(z)));
-        gravelDeposits.forEach(pair -> listTag6.add(new IntArrayTag(new int[]{pair.getFirst(), pair.getSecond()})));
-        compoundTag.put("SmallShaftLeftEntrances", listTag1);
-        compoundTag.put("SmallShaftRightEntrances", listTag2);
-        compoundTag.put("SideRoomEntrances", listTag3);
-        compoundTag.put("BigSupports", listTag4);
-        compoundTag.put("SmallSupports", listTag5);
-        compoundTag.put("GravelDeposits", listTag6);
+    /**
+     * Returns the local x coordinate of the wall side rooms open onto.
+     * Which wall is on the left depends on the tunnel's direction.
+     */
+    private int getSideRoomEntranceX(boolean builtLeft) {
+        Direction direction = this.getOrientation();
+        boolean atMinX = direction == Direction.SOUTH || direction == Direction.WEST ? !builtLeft : builtLeft;
+        return atMinX ? 0 : SECONDARY_AXIS_LEN - 1;
     }
 
     public static BoundingBox determineBoxPosition(int x, int y, int z, Direction direction) {
@@ -160,12 +190,12 @@ public class BigTunnel extends BetterMineshaftPiece {
     }
 
     @Override
-    public void postProcess(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos) {
+    protected void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig) {
         // Randomize blocks
-        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateRandomizers.mainRandomizer);
+        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateSamplers.mainSampler);
 
         // Randomize floor
-        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, 0, LOCAL_Z_END, config.blockStateRandomizers.floorRandomizer);
+        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, 0, LOCAL_Z_END, config.blockStateSamplers.floorSampler);
 
         // Fill with air
         this.fill(world, box, 1, 1, 0, LOCAL_X_END - 1, LOCAL_Y_END - 3, LOCAL_Z_END, AIR);
@@ -179,30 +209,31 @@ public class BigTunnel extends BetterMineshaftPiece {
         generateSmallShaftEntrances(world, box, random);
         generateSideRoomOpenings(world, box, random);
         generateLegs(world, box, random);
-        generateBigSupports(world, box, random);
-        generateSmallSupports(world, box, random);
+        generateBigSupports(world, box, random, modConfig.spawnRates());
+        generateSmallSupports(world, box, random, modConfig.spawnRates());
 
         // Decorations
-        generateChestCarts(world, box, random);
-        generateTntCarts(world, box, random);
+        generateChestCarts(world, box, random, modConfig.spawnRates());
+        generateTntCarts(world, box, random, modConfig.spawnRates());
         generateGravelDeposits(world, box, random);
         this.addBiomeDecorations(world, box, random, 0, 0, 0, LOCAL_X_END, LOCAL_Y_END - 1, LOCAL_Z_END);
         this.addVines(world, box, random, config.decorationChances.vineChance, 1, 0, 1, LOCAL_X_END - 1, LOCAL_Y_END, LOCAL_Z_END - 1);
-        generateLanterns(world, box, random);
+        generateLanterns(world, box, random, modConfig.spawnRates());
         generateRails(world, box, random);
     }
 
     private void generateSmallShaftEntrances(WorldGenLevel world, BoundingBox box, Random random) {
-        for (BlockPos entrancePos : smallShaftLeftEntrances) {
-            int x = entrancePos.getX();
-            int y = entrancePos.getY();
-            int z = entrancePos.getZ();
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        for (int entrances = smallShaftLeftEntrances; entrances != 0; entrances &= entrances - 1) {
+            int x = 0;
+            int y = 1;
+            int z = Integer.numberOfTrailingZeros(entrances);
 
             // Check if the area is covered. We only need to spawn supports in covered areas.
             int numCovered = 0; // We require at least 2 blocks to be covered
             for (int i = z; i <= z + 2; i++) {
                 for (int j = x; j <= x + 1; j++) {
-                    BlockState blockState = this.getBlock(world, j, y + 3, i, box);
+                    BlockState blockState = this.getBlock(world, mutable, j, y + 3, i, box);
                     if (!blockState.isAir() && !blockState.is(Blocks.CHAIN)) {
                         numCovered++;
                     }
@@ -214,24 +245,24 @@ public class BigTunnel extends BetterMineshaftPiece {
             this.replaceAirOrChains(world, box, x, y - 1, z, x + 1, y - 1, z + 2, config.blockStates.mainBlockState); // Floor connecting big shaft to small shaft
             if (numCovered < 2) continue;
 
-            this.placeBlock(world, config.blockStates.supportBlockState, x, y + 1, z, box);
-            this.placeBlock(world, config.blockStates.supportBlockState, x, y + 1, z + 2, box);
+            this.placeBlock(world, config.blockStates.supportBlockState, mutable, x, y + 1, z, box);
+            this.placeBlock(world, config.blockStates.supportBlockState, mutable, x, y + 1, z + 2, box);
             this.fill(world, box, x + 1, y, z, x + 1, y + 1, z, config.blockStates.supportBlockState);
             this.fill(world, box, x + 1, y, z + 2, x + 1, y + 1, z + 2, config.blockStates.supportBlockState);
             this.chanceFill(world, box, random, .75f, x, y + 2, z, x + 1, y + 2, z + 2, config.blockStates.mainBlockState);
             this.fill(world, box, x, y + 1, z + 1, x + 1, y + 1, z + 1, AIR);
         }
 
-        for (BlockPos entrancePos : smallShaftRightEntrances) {
-            int x = entrancePos.getX();
-            int y = entrancePos.getY();
-            int z = entrancePos.getZ();
+        for (int entrances = smallShaftRightEntrances; entrances != 0; entrances &= entrances - 1) {
+            int x = SECONDARY_AXIS_LEN - 2;
+            int y = 1;
+            int z = Integer.numberOfTrailingZeros(entrances);
 
             // Check if the area is covered. We only need to spawn supports in covered areas.
             int numCovered = 0; // We require at least 2 blocks to be covered
             for (int i = z; i <= z + 2; i++) {
                 for (int j = x; j <= x + 1; j++) {
-                    BlockState blockState = this.getBlock(world, j, y + 3, i, box);
+                    BlockState blockState = this.getBlock(world, mutable, j, y + 3, i, box);
                     if (!blockState.isAir() && !blockState.is(Blocks.CHAIN)) {
                         numCovered++;
                     }
@@ -242,8 +273,8 @@ public class BigTunnel extends BetterMineshaftPiece {
             this.replaceAirOrChains(world, box, x, y - 1, z, x + 1, y - 1, z + 2, this.config.blockStates.mainBlockState); // Floor connecting big shaft to small shaft
             if (numCovered < 2) continue;
 
-            this.placeBlock(world, config.blockStates.supportBlockState, x + 1, y + 1, z, box);
-            this.placeBlock(world, config.blockStates.supportBlockState, x + 1, y + 1, z + 2, box);
+            this.placeBlock(world, config.blockStates.supportBlockState, mutable, x + 1, y + 1, z, box);
+            this.placeBlock(world, config.blockStates.supportBlockState, mutable, x + 1, y + 1, z + 2, box);
             this.fill(world, box, x, y, z, x, y + 1, z, config.blockStates.supportBlockState);
             this.fill(world, box, x, y, z + 2, x, y + 1, z + 2, config.blockStates.supportBlockState);
             this.chanceFill(world, box, random, .75f, x, y + 2, z, x + 1, y + 2, z + 2, config.blockStates.mainBlockState);
@@ -261,19 +292,10 @@ public class BigTunnel extends BetterMineshaftPiece {
     }
 
     private void generateLegsVariant1(WorldGenLevel world, BoundingBox box, Random random) {
-        // Configure support block
-        BlockState supportBlock = config.blockStates.supportBlockState;
-        if (supportBlock.getProperties().contains(BlockStateProperties.NORTH_WALL) && supportBlock.getProperties().contains(BlockStateProperties.SOUTH_WALL)) {
-            supportBlock = supportBlock.setValue(BlockStateProperties.NORTH_WALL, WallSide.TALL).setValue(BlockStateProperties.SOUTH_WALL, WallSide.TALL);
-        } else if (supportBlock.getProperties().contains(BlockStateProperties.NORTH) && supportBlock.getProperties().contains(BlockStateProperties.SOUTH)) {
-            supportBlock = supportBlock.setValue(BlockStateProperties.NORTH, true).setValue(BlockStateProperties.SOUTH, true);
-        }
-        if (supportBlock.getProperties().contains(BlockStateProperties.UP)) {
-            supportBlock = supportBlock.setValue(BlockStateProperties.UP, false);
-        }
+        BlockState supportBlock = config.derivedBlockStates.supportBlockStateNorthSouth;
 
         // Get leg selector
-        BlockStateRandomizer legSelector = config.blockStateRandomizers.legRandomizer;
+        BlockStateSampler legSelector = config.blockStateSamplers.legSampler;
 
         // Begin generating legs. For each leg, if it successfully generates then we generate
         // Some supporting blocks around it.
@@ -340,7 +362,7 @@ public class BigTunnel extends BetterMineshaftPiece {
     }
 
     private void generateLegsVariant2(WorldGenLevel world, BoundingBox box, Random random) {
-        BlockStateRandomizer legSelector = config.blockStateRandomizers.legRandomizer;
+        BlockStateSampler legSelector = config.blockStateSamplers.legSampler;
         for (int z = 0; z <= LOCAL_Z_END; z += 7) {
             generateLeg(world, random, box, 2, z + 1, legSelector);
             generateLeg(world, random, box, LOCAL_X_END - 2, z + 1, legSelector);
@@ -370,75 +392,68 @@ public class BigTunnel extends BetterMineshaftPiece {
     }
 
     private void generateGravelDeposits(WorldGenLevel world, BoundingBox box, Random random) {
-        gravelDeposits.forEach(pair -> {
-            int z = pair.getFirst();
-            int side = pair.getSecond();
-            switch (side) {
-                case 0: // Left side
-                default:
-                    // Row closest to wall
-                    this.replaceAirOrChains(world, box, 1, 1, z, 1, 2, z + 2, config.blockStates.gravelBlockState);
-                    this.replaceAirOrChains(world, box, 1, 3, z + 1, 1, 3 + random.nextInt(2), z + 1, config.blockStates.gravelBlockState);
-                    this.chanceReplaceAir(world, box, random, .5f, 1, 3, z, 1, 3, z + 2, config.blockStates.gravelBlockState);
-                    // Middle row
-                    this.replaceAirOrChains(world, box, 2, 1, z + 1, 2, 2 + random.nextInt(2), z + 1, config.blockStates.gravelBlockState);
-                    this.replaceAirOrChains(world, box, 2, 1, z, 2, 1 + random.nextInt(2), z + 2, config.blockStates.gravelBlockState);
-                    // Innermost row
-                    this.chanceReplaceAir(world, box, random, .5f, 3, 1, z, 3, 1, z + 2, config.blockStates.gravelBlockState);
-                    break;
-                case 1: // Right side
-                    // Row closest to wall
-                    this.replaceAirOrChains(world, box, LOCAL_X_END - 1, 1, z, LOCAL_X_END - 1, 2, z + 2, config.blockStates.gravelBlockState);
-                    this.replaceAirOrChains(world, box, LOCAL_X_END - 1, 3, z + 1, LOCAL_X_END - 1, 3 + random.nextInt(2), z + 1, config.blockStates.gravelBlockState);
-                    this.chanceReplaceAir(world, box, random, .5f, LOCAL_X_END - 1, 3, z, LOCAL_X_END - 1, 3, z + 2, config.blockStates.gravelBlockState);
-                    // Middle row
-                    this.replaceAirOrChains(world, box, LOCAL_X_END - 2, 1, z + 1, LOCAL_X_END - 2, 2 + random.nextInt(2), z + 1, config.blockStates.gravelBlockState);
-                    this.replaceAirOrChains(world, box, LOCAL_X_END - 2, 1, z, LOCAL_X_END - 2, 1 + random.nextInt(2), z + 2, config.blockStates.gravelBlockState);
-                    // Innermost row
-                    this.chanceReplaceAir(world, box, random, .5f, LOCAL_X_END - 3, 1, z, LOCAL_X_END - 3, 1, z + 2, config.blockStates.gravelBlockState);
+        for (int deposits = gravelDepositsLeft | gravelDepositsRight; deposits != 0; deposits &= deposits - 1) {
+            int z = Integer.numberOfTrailingZeros(deposits);
+            if ((gravelDepositsLeft & (1 << z)) != 0) { // Left side
+                // Row closest to wall
+                this.replaceAirOrChains(world, box, 1, 1, z, 1, 2, z + 2, config.blockStates.gravelBlockState);
+                this.replaceAirOrChains(world, box, 1, 3, z + 1, 1, 3 + random.nextInt(2), z + 1, config.blockStates.gravelBlockState);
+                this.chanceReplaceAir(world, box, random, .5f, 1, 3, z, 1, 3, z + 2, config.blockStates.gravelBlockState);
+                // Middle row
+                this.replaceAirOrChains(world, box, 2, 1, z + 1, 2, 2 + random.nextInt(2), z + 1, config.blockStates.gravelBlockState);
+                this.replaceAirOrChains(world, box, 2, 1, z, 2, 1 + random.nextInt(2), z + 2, config.blockStates.gravelBlockState);
+                // Innermost row
+                this.chanceReplaceAir(world, box, random, .5f, 3, 1, z, 3, 1, z + 2, config.blockStates.gravelBlockState);
+            } else { // Right side
+                // Row closest to wall
+                this.replaceAirOrChains(world, box, LOCAL_X_END - 1, 1, z, LOCAL_X_END - 1, 2, z + 2, config.blockStates.gravelBlockState);
+                this.replaceAirOrChains(world, box, LOCAL_X_END - 1, 3, z + 1, LOCAL_X_END - 1, 3 + random.nextInt(2), z + 1, config.blockStates.gravelBlockState);
+                this.chanceReplaceAir(world, box, random, .5f, LOCAL_X_END - 1, 3, z, LOCAL_X_END - 1, 3, z + 2, config.blockStates.gravelBlockState);
+                // Middle row
+                this.replaceAirOrChains(world, box, LOCAL_X_END - 2, 1, z + 1, LOCAL_X_END - 2, 2 + random.nextInt(2), z + 1, config.blockStates.gravelBlockState);
+                this.replaceAirOrChains(world, box, LOCAL_X_END - 2, 1, z, LOCAL_X_END - 2, 1 + random.nextInt(2), z + 2, config.blockStates.gravelBlockState);
+                // Innermost row
+                this.chanceReplaceAir(world, box, random, .5f, LOCAL_X_END - 3, 1, z, LOCAL_X_END - 3, 1, z + 2, config.blockStates.gravelBlockState);
             }
-        });
+        }
     }
 
-    private void generateChestCarts(WorldGenLevel world, BoundingBox box, Random random) {
+    private void generateChestCarts(WorldGenLevel world, BoundingBox box, Random random, ConfigModule.SpawnRates spawnRates) {
+        double spawnRate = spawnRates.mainShaftChestMinecartSpawnRate();
         for (int z = 0; z <= LOCAL_Z_END; z++) {
-            if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.mainShaftChestMinecartSpawnRate) {
+            if (random.nextFloat() < spawnRate) {
                 BlockPos blockPos = this.getWorldPos(LOCAL_X_END / 2, 1, z);
                 if (box.isInside(blockPos) && !world.getBlockState(blockPos.below()).isAir()) {
-                    MinecartChest chestMinecartEntity = new MinecartChest(world.getLevel(), ((float) blockPos.getX() + 0.5F), ((float) blockPos.getY() + 0.5F), ((float) blockPos.getZ() + 0.5F));
-                    chestMinecartEntity.setLootTable(BuiltInLootTables.ABANDONED_MINESHAFT, random.nextLong());
-                    world.addFreshEntity(chestMinecartEntity);
+                    this.addMinecart(world, EntityType.CHEST_MINECART, blockPos, BuiltInLootTables.ABANDONED_MINESHAFT, random.nextLong());
                 }
             }
         }
     }
 
-    private void generateTntCarts(WorldGenLevel world, BoundingBox box, Random random) {
+    private void generateTntCarts(WorldGenLevel world, BoundingBox box, Random random, ConfigModule.SpawnRates spawnRates) {
+        double spawnRate = spawnRates.mainShaftTntMinecartSpawnRate();
         for (int z = 0; z <= LOCAL_Z_END; z++) {
-            if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.mainShaftTntMinecartSpawnRate) {
+            if (random.nextFloat() < spawnRate) {
                 BlockPos blockPos = this.getWorldPos(LOCAL_X_END / 2, 1, z);
                 if (box.isInside(blockPos) && !world.getBlockState(blockPos.below()).isAir()) {
-                    MinecartTNT tntMinecartEntity = new MinecartTNT(world.getLevel(), ((float) blockPos.getX() + 0.5F), ((float) blockPos.getY() + 0.5F), ((float) blockPos.getZ() + 0.5F));
-                    world.addFreshEntity(tntMinecartEntity);
+                    this.addMinecart(world, EntityType.TNT_MINECART, blockPos, null, 0);
                 }
             }
         }
     }
 
-    private void generateBigSupports(WorldGenLevel world, BoundingBox box, Random random) {
-        float cobwebChance = (float) BetterMineshaftsCommon.CONFIG.spawnRates.cobwebSpawnRate;
-        BlockState supportBlock = config.blockStates.supportBlockState;
-        if (supportBlock.getProperties().contains(BlockStateProperties.EAST_WALL) && supportBlock.getProperties().contains(BlockStateProperties.WEST_WALL)) {
-            supportBlock = supportBlock.setValue(BlockStateProperties.EAST_WALL, WallSide.TALL).setValue(BlockStateProperties.WEST_WALL, WallSide.TALL);
-        } else if (supportBlock.getProperties().contains(BlockStateProperties.EAST) && supportBlock.getProperties().contains(BlockStateProperties.WEST)) {
-            supportBlock = supportBlock.setValue(BlockStateProperties.EAST, true).setValue(BlockStateProperties.WEST, true);
-        }
+    private void generateBigSupports(WorldGenLevel world, BoundingBox box, Random random, ConfigModule.SpawnRates spawnRates) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        float cobwebChance = (float) spawnRates.cobwebSpawnRate();
+        BlockState supportBlock = config.derivedBlockStates.supportBlockStateEastWest;
+
+        for (int supports = bigSupports; supports != 0; supports &= supports - 1) {
+            int z = Integer.numberOfTrailingZeros(supports);
 
-        for (int z : bigSupports) {
             // Check if the area is covered. We only need to spawn supports in covered areas.
             int numCovered = 0; // We require at least 2 blocks to be covered
             for (int x = 2; x <= LOCAL_X_END - 2; x++) {
-                BlockState blockState = this.getBlock(world, x, 7, z, box);
+                BlockState blockState = this.getBlock(world, mutable, x, 7, z, box);
                 if (!blockState.isAir() && !blockState.is(Blocks.CHAIN)) {
                     numCovered++;
                 }
@@ -469,20 +484,18 @@ public class BigTunnel extends BetterMineshaftPiece {
         }
     }
 
-    private void generateSmallSupports(WorldGenLevel world, BoundingBox box, Random random) {
-        float cobwebChance = (float) BetterMineshaftsCommon.CONFIG.spawnRates.cobwebSpawnRate;
-        BlockState supportBlock = config.blockStates.supportBlockState;
-        if (supportBlock.getProperties().contains(BlockStateProperties.EAST_WALL) && supportBlock.getProperties().contains(BlockStateProperties.WEST_WALL)) {
-            supportBlock = supportBlock.setValue(BlockStateProperties.EAST_WALL, WallSide.TALL).setValue(BlockStateProperties.WEST_WALL, WallSide.TALL);
-        } else if (supportBlock.getProperties().contains(BlockStateProperties.EAST) && supportBlock.getProperties().contains(BlockStateProperties.WEST)) {
-            supportBlock = supportBlock.setValue(BlockStateProperties.EAST, true).setValue(BlockStateProperties.WEST, true);
-        }
+    private void generateSmallSupports(WorldGenLevel world, BoundingBox box, Random random, ConfigModule.SpawnRates spawnRates) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        float cobwebChance = (float) spawnRates.cobwebSpawnRate();
+        BlockState supportBlock = config.derivedBlockStates.supportBlockStateEastWest;
+
+        for (int supports = smallSupports; supports != 0; supports &= supports - 1) {
+            int z = Integer.numberOfTrailingZeros(supports);
 
-        for (int z : smallSupports) {
             // Check if the area is covered. We only need to spawn supports in covered areas.
             int numCovered = 0; // We require at least 2 blocks to be covered
             for (int x = 2; x <= LOCAL_X_END - 2; x++) {
-                BlockState blockState = this.getBlock(world, x, 7, z, box);
+                BlockState blockState = this.getBlock(world, mutable, x, 7, z, box);
                 if (!blockState.isAir() && !blockState.is(Blocks.CHAIN)) {
                     numCovered++;
                 }
@@ -509,13 +522,14 @@ public class BigTunnel extends BetterMineshaftPiece {
         }
     }
 
-    private void generateLanterns(WorldGenLevel world, BoundingBox box, Random random) {
-        BlockState LANTERN = Blocks.LANTERN.defaultBlockState().setValue(BlockStateProperties.HANGING, true);
+    private void generateLanterns(WorldGenLevel world, BoundingBox box, Random random, ConfigModule.SpawnRates spawnRates) {
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        double lanternSpawnRate = spawnRates.lanternSpawnRate();
         for (int z = 0; z <= LOCAL_Z_END; z++) {
             for (int x = 3; x <= LOCAL_X_END - 3; x++) {
-                if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.lanternSpawnRate) {
-                    if (LANTERN.canSurvive(world, this.getWorldPos(x, LOCAL_Y_END - 1, z))) {
-                        this.placeBlock(world, LANTERN, x, LOCAL_Y_END - 1, z, box);
+                if (random.nextFloat() < lanternSpawnRate) {
+                    if (HANGING_LANTERN.canSurvive(world, this.getWorldPos(mutable, x, LOCAL_Y_END - 1, z))) {
+                        this.placeBlock(world, HANGING_LANTERN, mutable, x, LOCAL_Y_END - 1, z, box);
                         z += 20;
                     }
                 }
@@ -527,9 +541,11 @@ public class BigTunnel extends BetterMineshaftPiece {
         // Place rails in center
         BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
         for (int z = 0; z <= LOCAL_Z_END; z++) {
-            mutable.set(this.getWorldX(LOCAL_X_END / 2, z), this.getWorldY(1), this.getWorldZ(LOCAL_X_END / 2, z));
-            if (random.nextFloat() < 0.5f && (this.getBlock(world, LOCAL_X_END / 2, 1, z, box).is(Blocks.AIR) || this.getBlock(world, LOCAL_X_END / 2, 1, z, box).is(Blocks.CAVE_AIR)) && Blocks.RAIL.canSurvive(AIR, world, mutable)) {
-                this.placeBlock(world, Blocks.RAIL.defaultBlockState(), LOCAL_X_END / 2, 1, z, boundingBox);
+            if (random.nextFloat() < 0.5f) {
+                BlockState blockState = this.getBlock(world, mutable, LOCAL_X_END / 2, 1, z, box);
+                if ((blockState.is(Blocks.AIR) || blockState.is(Blocks.CAVE_AIR)) && Blocks.RAIL.canSurvive(AIR, world, mutable)) {
+                    this.placeBlock(world, Blocks.RAIL.defaultBlockState(), mutable, LOCAL_X_END / 2, 1, z, boundingBox);
+                }
             }
         }
 
@@ -537,32 +553,39 @@ public class BigTunnel extends BetterMineshaftPiece {
         int blocksSinceLastRail = 0;
         for (int n = 0; n <= LOCAL_Z_END; n++) {
             blocksSinceLastRail++;
-            if ((random.nextInt(20) == 0 || blocksSinceLastRail > 25) && this.getBlock(world, LOCAL_X_END / 2, 1, n, box).getBlock() == Blocks.RAIL) {
-                this.placeBlock(world, Blocks.POWERED_RAIL.defaultBlockState().setValue(BlockStateProperties.POWERED, true), LOCAL_X_END / 2, 1, n, box);
+            if ((random.nextInt(20) == 0 || blocksSinceLastRail > 25) && this.getBlock(world, mutable, LOCAL_X_END / 2, 1, n, box).getBlock() == Blocks.RAIL) {
+                this.placeBlock(world, POWERED_RAIL, mutable, LOCAL_X_END / 2, 1, n, box);
                 blocksSinceLastRail = 0; // reset counter
             }
         }
     }
 
     private void generateSideRoomOpenings(WorldGenLevel world, BoundingBox chunkBox, Random random) {
-        sideRoomEntrances.forEach(entranceBox -> {
+        generateSideRoomOpenings(world, chunkBox, random, sideRoomEntrancesLeft, getSideRoomEntranceX(true));
+        generateSideRoomOpenings(world, chunkBox, random, sideRoomEntrancesRight, getSideRoomEntranceX(false));
+    }
+
+    private void generateSideRoomOpenings(WorldGenLevel world, BoundingBox chunkBox, Random random, int entrances, int x) {
+        for (; entrances != 0; entrances &= entrances - 1) {
+            int z = Integer.numberOfTrailingZeros(entrances);
+
             // Ensure floor in gap between tunnel and room
-            this.replaceAirOrChains(world, chunkBox, random, entranceBox.minX(), 0, entranceBox.minZ(), entranceBox.maxX(), 0, entranceBox.maxZ(), config.blockStateRandomizers.brickRandomizer);
+            this.replaceAirOrChains(world, chunkBox, random, x, 0, z, x, 0, z + 9, config.blockStateSamplers.brickSampler);
             switch (random.nextInt(3)) {
                 case 0:
                     // Completely open
-                    this.fill(world, chunkBox, entranceBox.minX(), entranceBox.minY(), entranceBox.minZ() + 2, entranceBox.maxX(), entranceBox.maxY(), entranceBox.maxZ() - 2, AIR);
-                    return;
+                    this.fill(world, chunkBox, x, 1, z + 2, x, 3, z + 7, AIR);
+                    break;
                 case 1:
                     // A few columns for openings
-                    this.fill(world, chunkBox, entranceBox.minX(), entranceBox.minY(), entranceBox.minZ() + 2, entranceBox.maxX(), entranceBox.maxY() - 1, entranceBox.minZ() + 2, AIR);
-                    this.fill(world, chunkBox, entranceBox.minX(), entranceBox.minY(), entranceBox.minZ() + 4, entranceBox.maxX(), entranceBox.maxY() - 1, entranceBox.minZ() + 5, AIR);
-                    this.fill(world, chunkBox, entranceBox.minX(), entranceBox.minY(), entranceBox.minZ() + 7, entranceBox.maxX(), entranceBox.maxY() - 1, entranceBox.minZ() + 7, AIR);
-                    return;
+                    this.fill(world, chunkBox, x, 1, z + 2, x, 2, z + 2, AIR);
+                    this.fill(world, chunkBox, x, 1, z + 4, x, 2, z + 5, AIR);
+                    this.fill(world, chunkBox, x, 1, z + 7, x, 2, z + 7, AIR);
+                    break;
                 case 2:
                     // No openings - random block removal will expose these, probably
             }
-        });
+        }
     }
 
     private void buildGravelDeposits(Random random) {
@@ -570,10 +593,10 @@ public class BigTunnel extends BetterMineshaftPiece {
             float r = random.nextFloat();
             int currPos = z;
             if (r < config.decorationChances.gravelPileChance / 2) { // Left side
-                gravelDeposits.add(new Pair<>(currPos, 0));
+                gravelDepositsLeft |= 1 << currPos;
                 z += 2;
             } else if (r < config.decorationChances.gravelPileChance) { // Right side
-                gravelDeposits.add(new Pair<>(currPos, 1));
+                gravelDepositsRight |= 1 << currPos;
                 z += 2;
             }
         }
@@ -586,29 +609,16 @@ public class BigTunnel extends BetterMineshaftPiece {
         for (int z = 0; z <= LOCAL_Z_END - 2; z++) {
             counter++;
 
-            // Make sure we arent overlapping with small shaft entrances
-            boolean blockingEntrance = false;
-            for (BlockPos entrancePos : smallShaftLeftEntrances) {
-                if (entrancePos.getZ() <= z + 2 && z <= entrancePos.getZ() + 2) {
-                    blockingEntrance = true;
-                    break;
-                }
-            }
-            for (BlockPos entrancePos : smallShaftRightEntrances) {
-                if (entrancePos.getZ() <= z + 2 && z <= entrancePos.getZ() + 2) {
-                    blockingEntrance = true;
-                    break;
-                }
-            }
-            if (blockingEntrance) continue;
+            // Make sure we arent overlapping with small shaft entrances, i.e. no entrance starts within 2 blocks of z
+            if (((smallShaftLeftEntrances | smallShaftRightEntrances) & (0b11111 << z >>> 2)) != 0) continue;
 
             int r = random.nextInt(8);
             if (r == 0 || counter >= MAX_COUNT) { // Big support
-                bigSupports.add(z);
+                bigSupports |= 1 << z;
                 counter = 0;
                 z += 3;
             } else if (r == 1) { // Small support
-                smallSupports.add(z);
+                smallSupports |= 1 << z;
                 counter = 0;
                 z += 3;
             }
@@ -618,36 +628,37 @@ public class BigTunnel extends BetterMineshaftPiece {
     private void buildSideRoomsLeft(StructurePiece structurePiece, StructurePieceAccessor structurePieceAccessor, Random random, Direction direction, int pieceLen) {
         Direction nextPieceDirection;
         StructurePiece newPiece;
+        double spawnRate = BetterMineshaftsCommon.CONFIG.spawnRates().workstationSpawnRate();
         for (int n = 0; n < (pieceLen - 1) - 10; n++) {
-            if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.workstationSpawnRate) {
+            if (random.nextFloat() < spawnRate) {
                 switch (direction) {
                     case NORTH:
                     default:
                         nextPieceDirection = Direction.EAST;
                         newPiece = BetterMineshaftGenerator.generateAndAddSideRoomPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.minX() - 5, this.boundingBox.minY(), this.boundingBox.maxZ() - n - 9, nextPieceDirection, this.genDepth);
                         if (newPiece != null) {
-                            sideRoomEntrances.add(new BoundingBox(0, 1, n, 0, 3, n + 9));
+                            sideRoomEntrancesLeft |= 1 << n;
                         }
                         break;
                     case SOUTH:
                         nextPieceDirection = Direction.WEST;
                         newPiece = BetterMineshaftGenerator.generateAndAddSideRoomPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.maxX() + 5, this.boundingBox.minY(), this.boundingBox.minZ() + n + 9, nextPieceDirection, this.genDepth);
                         if (newPiece != null) {
-                            sideRoomEntrances.add(new BoundingBox(SECONDARY_AXIS_LEN - 1, 1, n, SECONDARY_AXIS_LEN - 1, 3, n + 9));
+                            sideRoomEntrancesLeft |= 1 << n;
                         }
                         break;
                     case WEST:
                         nextPieceDirection = Direction.NORTH;
                         newPiece = BetterMineshaftGenerator.generateAndAddSideRoomPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.maxX() - n - 9, this.boundingBox.minY(), this.boundingBox.maxZ() + 5, nextPieceDirection, this.genDepth);
                         if (newPiece != null) {
-                            sideRoomEntrances.add(new BoundingBox(SECONDARY_AXIS_LEN - 1, 1, n, SECONDARY_AXIS_LEN - 1, 3, n + 9));
+                            sideRoomEntrancesLeft |= 1 << n;
                         }
                         break;
                     case EAST:
                         nextPieceDirection = Direction.SOUTH;
                         newPiece = BetterMineshaftGenerator.generateAndAddSideRoomPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.minX() + n + 9, this.boundingBox.minY(), this.boundingBox.minZ() - 5, nextPieceDirection, this.genDepth);
                         if (newPiece != null) {
-                            sideRoomEntrances.add(new BoundingBox(0, 1, n, 0, 3, n + 9));
+                            sideRoomEntrancesLeft |= 1 << n;
                         }
                         break;
                 }
@@ -659,36 +670,37 @@ public class BigTunnel extends BetterMineshaftPiece {
     private void buildSideRoomsRight(StructurePiece structurePiece, StructurePieceAccessor structurePieceAccessor, Random random, Direction direction, int pieceLen) {
         Direction nextPieceDirection;
         StructurePiece newPiece;
+        double spawnRate = BetterMineshaftsCommon.CONFIG.spawnRates().workstationSpawnRate();
         for (int n = 0; n < (pieceLen - 1) - 10; n++) {
-            if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.workstationSpawnRate) {
+            if (random.nextFloat() < spawnRate) {
                 switch (direction) {
                     case NORTH:
                     default:
                         nextPieceDirection = Direction.WEST;
                         newPiece = BetterMineshaftGenerator.generateAndAddSideRoomPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.maxX() + 5, this.boundingBox.minY(), this.boundingBox.maxZ() - n, nextPieceDirection, this.genDepth);
                         if (newPiece != null) {
-                            sideRoomEntrances.add(new BoundingBox(SECONDARY_AXIS_LEN - 1, 1, n, SECONDARY_AXIS_LEN - 1, 3, n + 9));
+                            sideRoomEntrancesRight |= 1 << n;
                         }
                         break;
                     case SOUTH:
                         nextPieceDirection = Direction.EAST;
                         newPiece = BetterMineshaftGenerator.generateAndAddSideRoomPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.minX() - 5, this.boundingBox.minY(), this.boundingBox.minZ() + n, nextPieceDirection, this.genDepth);
                         if (newPiece != null) {
-                            sideRoomEntrances.add(new BoundingBox(0, 1, n, 0, 3, n + 9));
+                            sideRoomEntrancesRight |= 1 << n;
                         }
                         break;
                     case WEST:
                         nextPieceDirection = Direction.SOUTH;
                         newPiece = BetterMineshaftGenerator.generateAndAddSideRoomPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.maxX() - n, this.boundingBox.minY(), this.boundingBox.minZ() - 5, nextPieceDirection, this.genDepth);
                         if (newPiece != null) {
-                            sideRoomEntrances.add(new BoundingBox(0, 1, n, 0, 3, n + 9));
+                            sideRoomEntrancesRight |= 1 << n;
                         }
                         break;
                     case EAST:
                         nextPieceDirection = Direction.NORTH;
                         newPiece = BetterMineshaftGenerator.generateAndAddSideRoomPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.minX() + n, this.boundingBox.minY(), this.boundingBox.maxZ() + 5, nextPieceDirection, this.genDepth);
                         if (newPiece != null) {
-                            sideRoomEntrances.add(new BoundingBox(SECONDARY_AXIS_LEN - 1, 1, n, SECONDARY_AXIS_LEN - 1, 3, n + 9));
+                            sideRoomEntrancesRight |= 1 << n;
                         }
                         break;
                 }
@@ -700,36 +712,37 @@ public class BigTunnel extends BetterMineshaftPiece {
     private void buildSmallShaftsLeft(StructurePiece structurePiece, StructurePieceAccessor structurePieceAccessor, Random random, Direction direction, int pieceLen) {
         Direction nextPieceDirection;
         StructurePiece newPiece;
+        double spawnRate = BetterMineshaftsCommon.CONFIG.spawnRates().smallShaftSpawnRate();
         for (int n = 0; n < (pieceLen - 1) - 4; n++) {
-            if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftSpawnRate) {
+            if (random.nextFloat() < spawnRate) {
                 switch (direction) {
                     case NORTH:
                     default:
                         nextPieceDirection = Direction.WEST;
                         newPiece = BetterMineshaftGenerator.generateAndAddSmallTunnelPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.minX() - 1, this.boundingBox.minY(), this.boundingBox.maxZ() - n, nextPieceDirection, 0);
                         if (newPiece != null) {
-                            this.smallShaftLeftEntrances.add(new BlockPos(0, 1, n + 1));
+                            this.smallShaftLeftEntrances |= 1 << (n + 1);
                         }
                         break;
                     case SOUTH:
                         nextPieceDirection = Direction.EAST;
                         newPiece = BetterMineshaftGenerator.generateAndAddSmallTunnelPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.maxX() + 1, this.boundingBox.minY(), this.boundingBox.minZ() + n, nextPieceDirection, 0);
                         if (newPiece != null) {
-                            this.smallShaftRightEntrances.add(new BlockPos(SECONDARY_AXIS_LEN - 2, 1, n + 1));
+                            this.smallShaftRightEntrances |= 1 << (n + 1);
                         }
                         break;
                     case WEST:
                         nextPieceDirection = Direction.SOUTH;
                         newPiece = BetterMineshaftGenerator.generateAndAddSmallTunnelPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.maxX() - n, this.boundingBox.minY(), this.boundingBox.maxZ() + 1, nextPieceDirection, 0);
                         if (newPiece != null) {
-                            this.smallShaftRightEntrances.add(new BlockPos(SECONDARY_AXIS_LEN - 2, 1, n + 1));
+                            this.smallShaftRightEntrances |= 1 << (n + 1);
                         }
                         break;
                     case EAST:
                         nextPieceDirection = Direction.NORTH;
                         newPiece = BetterMineshaftGenerator.generateAndAddSmallTunnelPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.minX() + n, this.boundingBox.minY(), this.boundingBox.minZ() - 1, nextPieceDirection, 0);
                         if (newPiece != null) {
-                            this.smallShaftLeftEntrances.add(new BlockPos(0, 1, n + 1));
+                            this.smallShaftLeftEntrances |= 1 << (n + 1);
                         }
                         break;
                 }
@@ -742,36 +755,37 @@ public class BigTunnel extends BetterMineshaftPiece {
     private void buildSmallShaftsRight(StructurePiece structurePiece, StructurePieceAccessor structurePieceAccessor, Random random, Direction direction, int pieceLen) {
         Direction nextPieceDirection;
         StructurePiece newPiece;
+        double spawnRate = BetterMineshaftsCommon.CONFIG.spawnRates().smallShaftSpawnRate();
         for (int n = 5; n < pieceLen; n++) {
-            if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftSpawnRate) {
+            if (random.nextFloat() < spawnRate) {
                 switch (direction) {
                     case NORTH:
                     default:
                         nextPieceDirection = Direction.EAST;
                         newPiece = BetterMineshaftGenerator.generateAndAddSmallTunnelPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.maxX() + 1, this.boundingBox.minY(), this.boundingBox.maxZ() - n, nextPieceDirection, 0);
                         if (newPiece != null) {
-                            this.smallShaftRightEntrances.add(new BlockPos(SECONDARY_AXIS_LEN - 2, 1, n - 3));
+                            this.smallShaftRightEntrances |= 1 << (n - 3);
                         }
                         break;
                     case SOUTH:
                         nextPieceDirection = Direction.WEST;
                         newPiece = BetterMineshaftGenerator.generateAndAddSmallTunnelPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.minX() - 1, this.boundingBox.minY(), this.boundingBox.minZ() + n, nextPieceDirection, 0);
                         if (newPiece != null) {
-                            this.smallShaftLeftEntrances.add(new BlockPos(0, 1, n - 3));
+                            this.smallShaftLeftEntrances |= 1 << (n - 3);
                         }
                         break;
                     case WEST:
                         nextPieceDirection = Direction.NORTH;
                         newPiece = BetterMineshaftGenerator.generateAndAddSmallTunnelPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.maxX() - n, this.boundingBox.minY(), this.boundingBox.minZ() - 1, nextPieceDirection, 0);
                         if (newPiece != null) {
-                            this.smallShaftLeftEntrances.add(new BlockPos(0, 1, n - 3));
+                            this.smallShaftLeftEntrances |= 1 << (n - 3);
                         }
                         break;
                     case EAST:
                         nextPieceDirection = Direction.SOUTH;
                         newPiece = BetterMineshaftGenerator.generateAndAddSmallTunnelPiece(structurePiece, structurePieceAccessor, random, this.boundingBox.minX() + n, this.boundingBox.minY(), this.boundingBox.maxZ() + 1, nextPieceDirection, 0);
                         if (newPiece != null) {
-                            this.smallShaftRightEntrances.add(new BlockPos(SECONDARY_AXIS_LEN - 2, 1, n - 3));
+                            this.smallShaftRightEntrances |= 1 << (n - 3);
                         }
                         break;
                 }
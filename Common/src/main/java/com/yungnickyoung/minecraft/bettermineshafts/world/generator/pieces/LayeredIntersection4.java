@@ -1,6 +1,6 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
 
-import com.yungnickyoung.minecraft.bettermineshafts.mixin.BoundingBoxAccessor;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftGenerator;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftStructurePieceType;
@@ -33,8 +33,8 @@ public class LayeredIntersection4 extends BetterMineshaftPiece {
         LOCAL_Y_END = Y_AXIS_LEN - 1,
         LOCAL_Z_END = MAIN_AXIS_LEN - 1;
 
-    public LayeredIntersection4(CompoundTag compoundTag) {
-        super(BetterMineshaftStructurePieceType.LAYERED_INTERSECTION_4, compoundTag);
+    public LayeredIntersection4(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        super(BetterMineshaftStructurePieceType.LAYERED_INTERSECTION_4, structurePieceSerializationContext, compoundTag);
     }
 
     public LayeredIntersection4(int chainLength, Random random, BoundingBox blockBox, Direction direction, BetterMineshaftFeatureConfiguration config) {
@@ -48,28 +48,22 @@ public class LayeredIntersection4 extends BetterMineshaftPiece {
     }
 
     public static BoundingBox determineBoxPosition(StructurePieceAccessor structurePieceAccessor, Random random, int x, int y, int z, Direction direction) {
-        BoundingBox blockBox = new BoundingBox(x, y - 3, z, x, (y - 3) + Y_AXIS_LEN - 1, z);
+        int minY = y - 3;
+        int maxY = minY + Y_AXIS_LEN - 1;
+        BoundingBox blockBox;
         switch (direction) {
             case NORTH:
             default:
-                ((BoundingBoxAccessor) blockBox).setMaxX(x + 5);
-                ((BoundingBoxAccessor) blockBox).setMinX(x - 1);
-                ((BoundingBoxAccessor) blockBox).setMinZ(z - (MAIN_AXIS_LEN - 1));
+                blockBox = new BoundingBox(x - 1, minY, z - (MAIN_AXIS_LEN - 1), x + 5, maxY, z);
                 break;
             case SOUTH:
-                ((BoundingBoxAccessor) blockBox).setMaxX(x + 1);
-                ((BoundingBoxAccessor) blockBox).setMinX(x - 5);
-                ((BoundingBoxAccessor) blockBox).setMaxZ(z + (MAIN_AXIS_LEN - 1));
+                blockBox = new BoundingBox(x - 5, minY, z, x + 1, maxY, z + (MAIN_AXIS_LEN - 1));
                 break;
             case WEST:
-                ((BoundingBoxAccessor) blockBox).setMinX(x - (MAIN_AXIS_LEN - 1));
-                ((BoundingBoxAccessor) blockBox).setMaxZ(z);
-                ((BoundingBoxAccessor) blockBox).setMinZ(z - 5);
+                blockBox = new BoundingBox(x - (MAIN_AXIS_LEN - 1), minY, z - 5, x, maxY, z);
                 break;
             case EAST:
-                ((BoundingBoxAccessor) blockBox).setMaxX(x + (MAIN_AXIS_LEN - 1));
-                ((BoundingBoxAccessor) blockBox).setMaxZ(z + 4);
-                ((BoundingBoxAccessor) blockBox).setMinZ(z - 1);
+                blockBox = new BoundingBox(x, minY, z - 1, x + (MAIN_AXIS_LEN - 1), maxY, z + 4);
         }
 
         // The following func call returns null if this new blockbox does not intersect with any pieces in the list.
@@ -112,12 +106,12 @@ public class LayeredIntersection4 extends BetterMineshaftPiece {
     }
 
     @Override
-    public void postProcess(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos) {
+    protected void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig) {
         // Randomize blocks
-        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 1, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateRandomizers.mainRandomizer);
+        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 1, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateSamplers.mainSampler);
 
         // Randomize floor
-        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, 0, LOCAL_Z_END, config.blockStateRandomizers.floorRandomizer);
+        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, 0, LOCAL_Z_END, config.blockStateSamplers.floorSampler);
 
         // Fill with air
         this.fill(world, box, 2, 1, 2, 4, 1, 4, AIR);
@@ -127,13 +121,13 @@ public class LayeredIntersection4 extends BetterMineshaftPiece {
 
         // Sides for walking on
         this.fill(world, box, 2, 2, 0, 2, 3, 1, config.blockStates.mainBlockState);
-        this.chanceReplaceNonAir(world, box, random, .1f, 2, 2, 0, 2, 3, 1, config.blockStateRandomizers.brickRandomizer);
+        this.chanceReplaceNonAir(world, box, random, .1f, 2, 2, 0, 2, 3, 1, config.blockStateSamplers.brickSampler);
         this.fill(world, box, 4, 2, 0, 4, 3, 1, config.blockStates.mainBlockState);
-        this.chanceReplaceNonAir(world, box, random, .1f, 4, 2, 0, 4, 3, 1, config.blockStateRandomizers.brickRandomizer);
+        this.chanceReplaceNonAir(world, box, random, .1f, 4, 2, 0, 4, 3, 1, config.blockStateSamplers.brickSampler);
         this.fill(world, box, 2, 2, 5, 2, 3, 6, config.blockStates.mainBlockState);
-        this.chanceReplaceNonAir(world, box, random, .1f, 2, 2, 5, 2, 3, 6, config.blockStateRandomizers.brickRandomizer);
+        this.chanceReplaceNonAir(world, box, random, .1f, 2, 2, 5, 2, 3, 6, config.blockStateSamplers.brickSampler);
         this.fill(world, box, 4, 2, 5, 4, 3, 6, config.blockStates.mainBlockState);
-        this.chanceReplaceNonAir(world, box, random, .1f, 4, 2, 5, 4, 3, 6, config.blockStateRandomizers.brickRandomizer);
+        this.chanceReplaceNonAir(world, box, random, .1f, 4, 2, 5, 4, 3, 6, config.blockStateSamplers.brickSampler);
 
         // Ensure solid block is below each rail
         this.placeBlock(world, config.blockStates.mainBlockState, 3, 2, 0, box);
@@ -1,6 +1,6 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
 
-import com.yungnickyoung.minecraft.bettermineshafts.mixin.BoundingBoxAccessor;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftGenerator;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftStructurePieceType;
@@ -33,8 +33,8 @@ public class LayeredIntersection5 extends BetterMineshaftPiece {
         LOCAL_Y_END = Y_AXIS_LEN - 1,
         LOCAL_Z_END = MAIN_AXIS_LEN - 1;
 
-    public LayeredIntersection5(CompoundTag compoundTag) {
-        super(BetterMineshaftStructurePieceType.LAYERED_INTERSECTION_5, compoundTag);
+    public LayeredIntersection5(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        super(BetterMineshaftStructurePieceType.LAYERED_INTERSECTION_5, structurePieceSerializationContext, compoundTag);
     }
 
     public LayeredIntersection5(int pieceChainLen, Random random, BoundingBox blockBox, Direction direction, BetterMineshaftFeatureConfiguration config) {
@@ -48,25 +48,21 @@ public class LayeredIntersection5 extends BetterMineshaftPiece {
     }
 
     public static BoundingBox determineBoxPosition(StructurePieceAccessor structurePieceAccessor, Random random, int x, int y, int z, Direction direction) {
-        BoundingBox blockBox = new BoundingBox(x, y, z, x, y + Y_AXIS_LEN - 1, z);
-
+        int maxY = y + Y_AXIS_LEN - 1;
+        BoundingBox blockBox;
         switch (direction) {
             case NORTH:
             default:
-                ((BoundingBoxAccessor) blockBox).setMaxX(x + (SECONDARY_AXIS_LEN - 1));
-                ((BoundingBoxAccessor) blockBox).setMinZ(z - (MAIN_AXIS_LEN - 1));
+                blockBox = new BoundingBox(x, y, z - (MAIN_AXIS_LEN - 1), x + (SECONDARY_AXIS_LEN - 1), maxY, z);
                 break;
             case SOUTH:
-                ((BoundingBoxAccessor) blockBox).setMinX(x - (SECONDARY_AXIS_LEN - 1));
-                ((BoundingBoxAccessor) blockBox).setMaxZ(z + (MAIN_AXIS_LEN - 1));
+                blockBox = new BoundingBox(x - (SECONDARY_AXIS_LEN - 1), y, z, x, maxY, z + (MAIN_AXIS_LEN - 1));
                 break;
             case WEST:
-                ((BoundingBoxAccessor) blockBox).setMinX(x - (MAIN_AXIS_LEN - 1));
-                ((BoundingBoxAccessor) blockBox).setMinZ(z - (SECONDARY_AXIS_LEN - 1));
+                blockBox = new BoundingBox(x - (MAIN_AXIS_LEN - 1), y, z - (SECONDARY_AXIS_LEN - 1), x, maxY, z);
                 break;
             case EAST:
-                ((BoundingBoxAccessor) blockBox).setMaxX(x + (MAIN_AXIS_LEN - 1));
-                ((BoundingBoxAccessor) blockBox).setMaxZ(z + (SECONDARY_AXIS_LEN - 1));
+                blockBox = new BoundingBox(x, y, z, x + (MAIN_AXIS_LEN - 1), maxY, z + (SECONDARY_AXIS_LEN - 1));
         }
 
         // The following func call returns null if this new blockbox does not intersect with any pieces in the list.
@@ -104,12 +100,12 @@ public class LayeredIntersection5 extends BetterMineshaftPiece {
     }
 
     @Override
-    public void postProcess(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos) {
+    protected void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig) {
         // Randomize blocks
-        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 1, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateRandomizers.mainRandomizer);
+        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 1, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateSamplers.mainSampler);
 
         // Randomize floor
-        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, 0, LOCAL_Z_END, config.blockStateRandomizers.floorRandomizer);
+        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, 0, LOCAL_Z_END, config.blockStateSamplers.floorSampler);
 
         // Fill with air
         this.fill(world, box, 0, 1, 0, LOCAL_X_END, LOCAL_Y_END - 1, LOCAL_Z_END - 1, AIR);
@@ -128,14 +124,14 @@ public class LayeredIntersection5 extends BetterMineshaftPiece {
 
         // Second floor bottom
         this.fill(world, box, 0, 5, 0, LOCAL_X_END, 5, LOCAL_Z_END, config.blockStates.mainBlockState);
-        this.chanceReplaceNonAir(world, box, random, .5f, 0, 5, 0, LOCAL_X_END, 5, LOCAL_Z_END, config.blockStateRandomizers.mainRandomizer);
+        this.chanceReplaceNonAir(world, box, random, .5f, 0, 5, 0, LOCAL_X_END, 5, LOCAL_Z_END, config.blockStateSamplers.mainSampler);
         this.fill(world, box, 1, 5, 1, LOCAL_X_END - 1, 5, LOCAL_Z_END - 1, AIR);
 
         // Pillars
-        this.fill(world, box, random, 1, 1, 1, 1, LOCAL_Y_END - 1, 1, config.blockStateRandomizers.legRandomizer);
-        this.fill(world, box, random, 3, 1, 1, 3, LOCAL_Y_END - 1, 1, config.blockStateRandomizers.legRandomizer);
-        this.fill(world, box, random, 1, 1, 3, 1, LOCAL_Y_END - 1, 3, config.blockStateRandomizers.legRandomizer);
-        this.fill(world, box, random, 3, 1, 3, 3, LOCAL_Y_END - 1, 3, config.blockStateRandomizers.legRandomizer);
+        this.fill(world, box, random, 1, 1, 1, 1, LOCAL_Y_END - 1, 1, config.blockStateSamplers.legSampler);
+        this.fill(world, box, random, 3, 1, 1, 3, LOCAL_Y_END - 1, 1, config.blockStateSamplers.legSampler);
+        this.fill(world, box, random, 1, 1, 3, 1, LOCAL_Y_END - 1, 3, config.blockStateSamplers.legSampler);
+        this.fill(world, box, random, 3, 1, 3, 3, LOCAL_Y_END - 1, 3, config.blockStateSamplers.legSampler);
 
         // Ladders
         BlockState LADDER = Blocks.LADDER.defaultBlockState().setValue(LadderBlock.FACING, Direction.SOUTH);
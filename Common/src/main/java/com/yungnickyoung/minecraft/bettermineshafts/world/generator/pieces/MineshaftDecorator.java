@@ -0,0 +1,240 @@
+package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
+
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.SkipSampling;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.data.worldgen.features.CaveFeatures;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.BlockStateProperties;
+import net.minecraft.world.level.levelgen.feature.ConfiguredFeature;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Places the biome decorations (snow, lush and dripstone features, cacti, dead bushes and mushrooms) in a region of a piece.
+ * The decorations a config can actually place are compiled once, so inactive ones cost nothing.
+ * <p>
+ * By default cells are visited one by one, rolling each active decoration in the same order as previous versions.
+ * With the fast RNG option enabled, each rolled decoration instead draws the distance to its next hit
+ * from a geometric distribution and only visits those cells.
+ */
+public final class MineshaftDecorator {
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+    private static final float LUSH_FEATURE_CHANCE = .005f;
+    private static final float DRIPSTONE_FEATURE_CHANCE = .02f;
+
+    private final Decoration[] decorations;
+
+    public MineshaftDecorator(BetterMineshaftFeatureConfiguration.MineshaftDecorationChances chances) {
+        List<Decoration> decorations = new ArrayList<>();
+        if (chances.snowChance > 0) decorations.add(new Decoration(Type.SNOW, chances.snowChance));
+        if (chances.lushDecorations) {
+            decorations.add(new Decoration(Type.MOSS_PATCH, LUSH_FEATURE_CHANCE));
+            decorations.add(new Decoration(Type.LUSH_CLAY, LUSH_FEATURE_CHANCE));
+            decorations.add(new Decoration(Type.MOSS_CEILING, LUSH_FEATURE_CHANCE));
+            decorations.add(new Decoration(Type.MOSS_CARPET, 1));
+        }
+        if (chances.dripstoneDecorations) {
+            decorations.add(new Decoration(Type.DRIPSTONE_CLUSTER, DRIPSTONE_FEATURE_CHANCE));
+            decorations.add(new Decoration(Type.POINTED_DRIPSTONE, DRIPSTONE_FEATURE_CHANCE));
+        }
+        if (chances.cactusChance > 0) decorations.add(new Decoration(Type.CACTUS, chances.cactusChance));
+        if (chances.deadBushChance > 0) decorations.add(new Decoration(Type.DEAD_BUSH, chances.deadBushChance));
+        if (chances.mushroomChance > 0) decorations.add(new Decoration(Type.MUSHROOM, chances.mushroomChance));
+        this.decorations = decorations.toArray(new Decoration[0]);
+    }
+
+    public void decorate(BetterMineshaftPiece piece, WorldGenLevel world, BoundingBox box, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (this.decorations.length == 0 || minX > maxX || minY > maxY || minZ > maxZ) return;
+        if (BetterMineshaftPiece.isFastRng(random)) {
+            decorateSkipping(piece, world, box, random, minX, minY, minZ, maxX, maxY, maxZ);
+        } else {
+            decorateLegacy(piece, world, box, random, minX, minY, minZ, maxX, maxY, maxZ);
+        }
+    }
+
+    /**
+     * Visits every cell and rolls each active decoration in turn.
+     * Makes exactly the same random calls as previous versions, so existing seeds look the same.
+     */
+    private void decorateLegacy(BetterMineshaftPiece piece, WorldGenLevel world, BoundingBox box, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos scratch = new BlockPos.MutableBlockPos();
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    BlockState state = piece.getBlock(world, blockPos, x, y, z, box);
+                    BlockState stateBelow = piece.getBlock(world, scratch, x, y - 1, z, box);
+
+                    for (Decoration decoration : this.decorations) {
+                        switch (decoration.type) {
+                            case SNOW -> {
+                                if (random.nextFloat() < decoration.chance && state.isAir() && Blocks.SNOW.canSurvive(AIR, world, blockPos)) {
+                                    placeSnow(piece, world, box, random, scratch, x, y, z);
+                                }
+                            }
+                            case MOSS_PATCH, LUSH_CLAY, MOSS_CEILING, DRIPSTONE_CLUSTER, POINTED_DRIPSTONE -> {
+                                if (box.isInside(blockPos) && random.nextFloat() < decoration.chance) {
+                                    placeFeature(decoration.type, world, random, blockPos);
+                                }
+                            }
+                            case MOSS_CARPET -> placeMossCarpet(piece, world, box, blockPos, scratch, state, stateBelow, x, y, z);
+                            case CACTUS -> {
+                                if (random.nextFloat() < decoration.chance && state.isAir() && Blocks.CACTUS.canSurvive(AIR, world, blockPos)) {
+                                    placeCactus(piece, world, box, random, scratch, x, y, z);
+                                }
+                            }
+                            case DEAD_BUSH -> {
+                                if (random.nextFloat() < decoration.chance && state.isAir() && isDeadBushSoil(stateBelow)) {
+                                    piece.placeBlock(world, Blocks.DEAD_BUSH.defaultBlockState(), scratch, x, y, z, box);
+                                }
+                            }
+                            case MUSHROOM -> {
+                                if (state.isAir() && Blocks.RED_MUSHROOM.canSurvive(AIR, world, blockPos)) {
+                                    float r = random.nextFloat();
+                                    if (r < decoration.chance / 2) {
+                                        piece.placeBlock(world, Blocks.RED_MUSHROOM.defaultBlockState(), scratch, x, y, z, box);
+                                    } else if (r < decoration.chance) {
+                                        piece.placeBlock(world, Blocks.BROWN_MUSHROOM.defaultBlockState(), scratch, x, y, z, box);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs each active decoration over the whole region in turn, jumping straight from one hit to the next.
+     * Cells are numbered in the same x, y, z order the legacy loop visits them.
+     * Only moss carpet, which has no roll, still scans every cell.
+     */
+    private void decorateSkipping(BetterMineshaftPiece piece, WorldGenLevel world, BoundingBox box, Random random, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos scratch = new BlockPos.MutableBlockPos();
+        int sizeY = maxY - minY + 1;
+        int sizeZ = maxZ - minZ + 1;
+        int cells = (maxX - minX + 1) * sizeY * sizeZ;
+
+        for (Decoration decoration : this.decorations) {
+            if (decoration.type == Type.MOSS_CARPET) {
+                for (int x = minX; x <= maxX; x++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            BlockState state = piece.getBlock(world, blockPos, x, y, z, box);
+                            BlockState stateBelow = piece.getBlock(world, scratch, x, y - 1, z, box);
+                            placeMossCarpet(piece, world, box, blockPos, scratch, state, stateBelow, x, y, z);
+                        }
+                    }
+                }
+                continue;
+            }
+
+            for (long i = SkipSampling.nextSkip(random, decoration.logMiss); i < cells; i += 1 + SkipSampling.nextSkip(random, decoration.logMiss)) {
+                int cell = (int) i;
+                int z = minZ + cell % sizeZ;
+                int y = minY + (cell / sizeZ) % sizeY;
+                int x = minX + cell / (sizeZ * sizeY);
+                BlockState state = piece.getBlock(world, blockPos, x, y, z, box);
+
+                switch (decoration.type) {
+                    case SNOW -> {
+                        if (state.isAir() && Blocks.SNOW.canSurvive(AIR, world, blockPos)) {
+                            placeSnow(piece, world, box, random, scratch, x, y, z);
+                        }
+                    }
+                    case MOSS_PATCH, LUSH_CLAY, MOSS_CEILING, DRIPSTONE_CLUSTER, POINTED_DRIPSTONE -> {
+                        if (box.isInside(blockPos)) {
+                            placeFeature(decoration.type, world, random, blockPos);
+                        }
+                    }
+                    case CACTUS -> {
+                        if (state.isAir() && Blocks.CACTUS.canSurvive(AIR, world, blockPos)) {
+                            placeCactus(piece, world, box, random, scratch, x, y, z);
+                        }
+                    }
+                    case DEAD_BUSH -> {
+                        if (state.isAir() && isDeadBushSoil(piece.getBlock(world, scratch, x, y - 1, z, box))) {
+                            piece.placeBlock(world, Blocks.DEAD_BUSH.defaultBlockState(), scratch, x, y, z, box);
+                        }
+                    }
+                    case MUSHROOM -> {
+                        if (state.isAir() && Blocks.RED_MUSHROOM.canSurvive(AIR, world, blockPos)) {
+                            BlockState mushroom = random.nextBoolean() ? Blocks.RED_MUSHROOM.defaultBlockState() : Blocks.BROWN_MUSHROOM.defaultBlockState();
+                            piece.placeBlock(world, mushroom, scratch, x, y, z, box);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void placeSnow(BetterMineshaftPiece piece, WorldGenLevel world, BoundingBox box, Random random, BlockPos.MutableBlockPos scratch, int x, int y, int z) {
+        piece.placeBlock(world, Blocks.SNOW.defaultBlockState().setValue(BlockStateProperties.LAYERS, random.nextInt(2) + 1), scratch, x, y, z, box);
+    }
+
+    private static void placeCactus(BetterMineshaftPiece piece, WorldGenLevel world, BoundingBox box, Random random, BlockPos.MutableBlockPos scratch, int x, int y, int z) {
+        piece.placeBlock(world, Blocks.CACTUS.defaultBlockState().setValue(BlockStateProperties.AGE_15, 0), scratch, x, y, z, box);
+        if (random.nextFloat() < .5f && piece.getBlock(world, scratch, x, y + 1, z, box).is(Blocks.AIR)) {
+            piece.placeBlock(world, Blocks.CACTUS.defaultBlockState().setValue(BlockStateProperties.AGE_15, 0), scratch, x, y + 1, z, box);
+        }
+    }
+
+    private static void placeMossCarpet(BetterMineshaftPiece piece, WorldGenLevel world, BoundingBox box, BlockPos.MutableBlockPos blockPos, BlockPos.MutableBlockPos scratch,
+                                        BlockState state, BlockState stateBelow, int x, int y, int z) {
+        if (stateBelow.is(piece.config.blockStates.mainBlockState.getBlock()) && state.isAir() && stateBelow.isFaceSturdy(world, scratch.setWithOffset(blockPos, Direction.DOWN), Direction.UP)) {
+            piece.placeBlock(world, Blocks.MOSS_CARPET.defaultBlockState(), scratch, x, y, z, box);
+        }
+    }
+
+    private static void placeFeature(Type type, WorldGenLevel world, Random random, BlockPos blockPos) {
+        ConfiguredFeature<?, ?> feature = switch (type) {
+            case MOSS_PATCH -> CaveFeatures.MOSS_PATCH.value(); // Moss & ground plants
+            case LUSH_CLAY -> CaveFeatures.LUSH_CAVES_CLAY.value(); // Clay, water, dripleaf
+            case MOSS_CEILING -> CaveFeatures.MOSS_PATCH_CEILING.value(); // Moss ceiling & cave vines
+            case DRIPSTONE_CLUSTER -> CaveFeatures.DRIPSTONE_CLUSTER.value();
+            case POINTED_DRIPSTONE -> CaveFeatures.POINTED_DRIPSTONE.value();
+            default -> throw new IllegalArgumentException("Not a feature decoration: " + type);
+        };
+        feature.place(world, world.getLevel().getChunkSource().getGenerator(), random, blockPos.immutable());
+    }
+
+    private static boolean isDeadBushSoil(BlockState state) {
+        return state.is(Blocks.SAND) || state.is(Blocks.RED_SAND) || state.is(Blocks.TERRACOTTA) || state.is(Blocks.WHITE_TERRACOTTA)
+                || state.is(Blocks.ORANGE_TERRACOTTA) || state.is(Blocks.YELLOW_TERRACOTTA) || state.is(Blocks.BROWN_TERRACOTTA) || state.is(Blocks.DIRT);
+    }
+
+    private enum Type {
+        SNOW,
+        MOSS_PATCH,
+        LUSH_CLAY,
+        MOSS_CEILING,
+        MOSS_CARPET,
+        DRIPSTONE_CLUSTER,
+        POINTED_DRIPSTONE,
+        CACTUS,
+        DEAD_BUSH,
+        MUSHROOM
+    }
+
+    private static final class Decoration {
+        private final Type type;
+        private final float chance;
+        /** log(1 - chance), precomputed for geometric skips. */
+        private final double logMiss;
+
+        private Decoration(Type type, float chance) {
+            this.type = type;
+            this.chance = chance;
+            this.logMiss = SkipSampling.logMiss(chance);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
 
 import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftStructurePieceType;
 import com.yungnickyoung.minecraft.yungsapi.world.BoundingBoxHelper;
@@ -20,26 +21,27 @@ import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSeriali
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.function.ToIntFunction;
 
 public class OreDeposit extends BetterMineshaftPiece {
     public enum OreType {
-        COBBLE(0, Blocks.COBBLESTONE.defaultBlockState(), BetterMineshaftsCommon.CONFIG.ores.cobble),
-        COAL(1, Blocks.COAL_ORE.defaultBlockState(), BetterMineshaftsCommon.CONFIG.ores.coal + COBBLE.threshold),
-        IRON(2, Blocks.IRON_ORE.defaultBlockState(), BetterMineshaftsCommon.CONFIG.ores.iron + COAL.threshold),
-        REDSTONE(3, Blocks.REDSTONE_ORE.defaultBlockState(), BetterMineshaftsCommon.CONFIG.ores.redstone + IRON.threshold),
-        GOLD(4, Blocks.GOLD_ORE.defaultBlockState(), BetterMineshaftsCommon.CONFIG.ores.gold + REDSTONE.threshold),
-        LAPIS(5, Blocks.LAPIS_ORE.defaultBlockState(), BetterMineshaftsCommon.CONFIG.ores.lapis + GOLD.threshold),
-        EMERALD(6, Blocks.EMERALD_ORE.defaultBlockState(), BetterMineshaftsCommon.CONFIG.ores.emerald + LAPIS.threshold),
-        DIAMOND(7, Blocks.DIAMOND_ORE.defaultBlockState(), BetterMineshaftsCommon.CONFIG.ores.diamond + EMERALD.threshold);
+        COBBLE(0, Blocks.COBBLESTONE.defaultBlockState(), ConfigModule.Ores::cobble),
+        COAL(1, Blocks.COAL_ORE.defaultBlockState(), ConfigModule.Ores::coal),
+        IRON(2, Blocks.IRON_ORE.defaultBlockState(), ConfigModule.Ores::iron),
+        REDSTONE(3, Blocks.REDSTONE_ORE.defaultBlockState(), ConfigModule.Ores::redstone),
+        GOLD(4, Blocks.GOLD_ORE.defaultBlockState(), ConfigModule.Ores::gold),
+        LAPIS(5, Blocks.LAPIS_ORE.defaultBlockState(), ConfigModule.Ores::lapis),
+        EMERALD(6, Blocks.EMERALD_ORE.defaultBlockState(), ConfigModule.Ores::emerald),
+        DIAMOND(7, Blocks.DIAMOND_ORE.defaultBlockState(), ConfigModule.Ores::diamond);
 
         private final int value;
         private final BlockState block;
-        private final int threshold;
+        private final ToIntFunction<ConfigModule.Ores> spawnChance;
 
-        OreType(int value, BlockState block, int threshold) {
+        OreType(int value, BlockState block, ToIntFunction<ConfigModule.Ores> spawnChance) {
             this.value = value;
             this.block = block;
-            this.threshold = threshold;
+            this.spawnChance = spawnChance;
         }
 
         public static OreType valueOf(int value) {
@@ -63,8 +65,8 @@ public class OreDeposit extends BetterMineshaftPiece {
         LOCAL_Y_END = Y_AXIS_LEN - 1,
         LOCAL_Z_END = MAIN_AXIS_LEN - 1;
 
-    public OreDeposit(CompoundTag compoundTag) {
-        super(BetterMineshaftStructurePieceType.ORE_DEPOSIT, compoundTag);
+    public OreDeposit(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        super(BetterMineshaftStructurePieceType.ORE_DEPOSIT, structurePieceSerializationContext, compoundTag);
         this.oreType = OreType.valueOf(compoundTag.getInt("OreType"));
     }
 
@@ -92,25 +94,27 @@ public class OreDeposit extends BetterMineshaftPiece {
 
     @Override
     public void addChildren(StructurePiece structurePiece, StructurePieceAccessor structurePieceAccessor, Random random) {
+        ConfigModule.Ores ores = BetterMineshaftsCommon.CONFIG.ores();
         int r = random.nextInt(100);
 
         // Determine ore type
+        int threshold = 0;
         for (OreType oreType : OreType.values()) {
-            if (r < oreType.threshold) {
+            threshold += oreType.spawnChance.applyAsInt(ores);
+            if (this.oreType == null && r < threshold) {
                 this.oreType = oreType;
-                break;
             }
         }
 
         // Double check sum to see if user messed up spawn chances
-        if (OreType.DIAMOND.threshold != 100)
+        if (threshold != 100)
             BetterMineshaftsCommon.LOGGER.error("Your ore spawn chances don't add up to 100! Ores won't spawn as you intend!");
         if (this.oreType == null)
             this.oreType = OreType.COBBLE;
     }
 
     @Override
-    public void postProcess(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos) {
+    protected void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig) {
         BlockState COBBLE = Blocks.COBBLESTONE.defaultBlockState();
         BlockState ORE_BLOCK = this.oreType.getBlock();
 
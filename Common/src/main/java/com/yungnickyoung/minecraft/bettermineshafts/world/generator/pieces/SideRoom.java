@@ -1,6 +1,7 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
 
 import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftGenerator;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftStructurePieceType;
@@ -16,7 +17,6 @@ import net.minecraft.world.level.WorldGenLevel;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.FurnaceBlock;
 import net.minecraft.world.level.block.LadderBlock;
-import net.minecraft.world.level.block.TrapDoorBlock;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.FurnaceBlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
@@ -42,8 +42,8 @@ public class SideRoom extends BetterMineshaftPiece {
         LOCAL_Y_END = Y_AXIS_LEN - 1,
         LOCAL_Z_END = MAIN_AXIS_LEN - 1;
 
-    public SideRoom(CompoundTag compoundTag) {
-        super(BetterMineshaftStructurePieceType.SIDE_ROOM, compoundTag);
+    public SideRoom(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        super(BetterMineshaftStructurePieceType.SIDE_ROOM, structurePieceSerializationContext, compoundTag);
         this.hasDownstairs = compoundTag.getBoolean("hasDownstairs");
     }
 
@@ -72,7 +72,7 @@ public class SideRoom extends BetterMineshaftPiece {
     @Override
     public void addChildren(StructurePiece structurePiece, StructurePieceAccessor structurePieceAccessor, Random random) {
         // Chance of generating side room dungeon downstairs
-        if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.workstationDungeonSpawnRate) {
+        if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates().workstationDungeonSpawnRate()) {
             Direction direction = this.getOrientation();
             if (direction == null) {
                 return;
@@ -100,17 +100,17 @@ public class SideRoom extends BetterMineshaftPiece {
     }
 
     @Override
-    public void postProcess(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos) {
+    protected void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig) {
         // Fill with stone then clean out with air. Track ceiling positions to see where we can place iron bar supports
-        this.fill(world, box, random, 0, 0, 0, LOCAL_X_END, 1, LOCAL_Z_END, config.blockStateRandomizers.brickRandomizer); // Floor
-        this.chanceReplaceNonAir(world, box, random, 1.0f, 0, 2, 0, LOCAL_X_END, LOCAL_Y_END - 1, LOCAL_Z_END, config.blockStateRandomizers.brickRandomizer); // Fill w/ brick selector
+        this.fill(world, box, random, 0, 0, 0, LOCAL_X_END, 1, LOCAL_Z_END, config.blockStateSamplers.brickSampler); // Floor
+        this.chanceReplaceNonAir(world, box, random, 1.0f, 0, 2, 0, LOCAL_X_END, LOCAL_Y_END - 1, LOCAL_Z_END, config.blockStateSamplers.brickSampler); // Fill w/ brick selector
         this.fill(world, box, 1, 1, 1, LOCAL_X_END - 1, LOCAL_Y_END - 1, LOCAL_Z_END, AIR); // Fill with air
         boolean[][] ceiling = new boolean[SECONDARY_AXIS_LEN][MAIN_AXIS_LEN]; // Ceiling
         for (int x = 0; x <= LOCAL_X_END; ++x) {
             for (int z = 0; z <= LOCAL_Z_END; ++z) {
                 BlockState currState = this.getBlockAtFixed(world, x, LOCAL_Y_END, z, box);
                 if (currState != null && currState != AIR && currState != Blocks.AIR.defaultBlockState()) {
-                    this.placeBlock(world, config.blockStateRandomizers.brickRandomizer.get(random), x, LOCAL_Y_END, z, box);
+                    this.placeBlock(world, config.blockStateSamplers.brickSampler.get(random), x, LOCAL_Y_END, z, box);
                     ceiling[x][z] = true;
                 }
             }
@@ -148,11 +148,7 @@ public class SideRoom extends BetterMineshaftPiece {
         // Entrance to spider lair
         if (this.hasDownstairs) {
             this.placeBlock(world, Blocks.LADDER.defaultBlockState().setValue(LadderBlock.FACING, Direction.NORTH), 6, 0, 1, box);
-            BlockState trapdoorBlockState = config.blockStates.trapdoorBlockState;
-            if (trapdoorBlockState.hasProperty(TrapDoorBlock.FACING)) {
-                trapdoorBlockState = trapdoorBlockState.setValue(TrapDoorBlock.FACING, Direction.NORTH);
-            }
-            this.placeBlock(world, trapdoorBlockState, 6, 1, 1, box);
+            this.placeBlock(world, config.derivedBlockStates.trapdoorBlockStateNorth, 6, 1, 1, box);
         }
 
         // Decorations
@@ -162,10 +158,10 @@ public class SideRoom extends BetterMineshaftPiece {
     }
 
     private void generateLegs(WorldGenLevel world, Random random, BoundingBox box) {
-        generateLeg(world, random, box, 1, 1, config.blockStateRandomizers.brickRandomizer);
-        generateLeg(world, random, box, 1, LOCAL_Z_END - 1, config.blockStateRandomizers.brickRandomizer);
-        generateLeg(world, random, box, LOCAL_X_END - 1, 1, config.blockStateRandomizers.brickRandomizer);
-        generateLeg(world, random, box, LOCAL_X_END - 1, LOCAL_Z_END - 1, config.blockStateRandomizers.brickRandomizer);
+        generateLeg(world, random, box, 1, 1, config.blockStateSamplers.brickSampler);
+        generateLeg(world, random, box, 1, LOCAL_Z_END - 1, config.blockStateSamplers.brickSampler);
+        generateLeg(world, random, box, LOCAL_X_END - 1, 1, config.blockStateSamplers.brickSampler);
+        generateLeg(world, random, box, LOCAL_X_END - 1, LOCAL_Z_END - 1, config.blockStateSamplers.brickSampler);
     }
 
     private void generateIronBarSupports(WorldGenLevel world, BoundingBox box, Random random, boolean[][] ceiling) {
@@ -1,6 +1,6 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
 
-import com.yungnickyoung.minecraft.bettermineshafts.mixin.BoundingBoxAccessor;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftStructurePieceType;
 import net.minecraft.core.BlockPos;
@@ -34,8 +34,8 @@ public class SideRoomDungeon extends BetterMineshaftPiece {
         LOCAL_Y_END = Y_AXIS_LEN - 1,
         LOCAL_Z_END = MAIN_AXIS_LEN - 1;
 
-    public SideRoomDungeon(CompoundTag compoundTag) {
-        super(BetterMineshaftStructurePieceType.SIDE_ROOM_DUNGEON, compoundTag);
+    public SideRoomDungeon(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        super(BetterMineshaftStructurePieceType.SIDE_ROOM_DUNGEON, structurePieceSerializationContext, compoundTag);
     }
 
     public SideRoomDungeon(int pieceChainLen, Random random, BoundingBox blockBox, Direction direction, BetterMineshaftFeatureConfiguration config) {
@@ -49,29 +49,21 @@ public class SideRoomDungeon extends BetterMineshaftPiece {
     }
 
     public static BoundingBox determineBoxPosition(StructurePieceAccessor structurePieceAccessor, Random random, int x, int y, int z, Direction direction) {
-        BoundingBox blockBox = new BoundingBox(x, y, z, x, y + Y_AXIS_LEN - 1, z);
-
+        int maxY = y + Y_AXIS_LEN - 1;
+        BoundingBox blockBox;
         switch (direction) {
             case NORTH:
             default:
-                ((BoundingBoxAccessor) blockBox).setMaxX(x + 4);
-                ((BoundingBoxAccessor) blockBox).setMinX(x - 4);
-                ((BoundingBoxAccessor) blockBox).setMinZ(z - (MAIN_AXIS_LEN - 1));
+                blockBox = new BoundingBox(x - 4, y, z - (MAIN_AXIS_LEN - 1), x + 4, maxY, z);
                 break;
             case SOUTH:
-                ((BoundingBoxAccessor) blockBox).setMaxX(x + 4);
-                ((BoundingBoxAccessor) blockBox).setMinX(x - 4);
-                ((BoundingBoxAccessor) blockBox).setMaxZ(z + (MAIN_AXIS_LEN - 1));
+                blockBox = new BoundingBox(x - 4, y, z, x + 4, maxY, z + (MAIN_AXIS_LEN - 1));
                 break;
             case WEST:
-                ((BoundingBoxAccessor) blockBox).setMinX(x - (MAIN_AXIS_LEN - 1));
-                ((BoundingBoxAccessor) blockBox).setMaxZ(z + 4);
-                ((BoundingBoxAccessor) blockBox).setMinZ(z - 4);
+                blockBox = new BoundingBox(x - (MAIN_AXIS_LEN - 1), y, z - 4, x, maxY, z + 4);
                 break;
             case EAST:
-                ((BoundingBoxAccessor) blockBox).setMaxX(x + (MAIN_AXIS_LEN - 1));
-                ((BoundingBoxAccessor) blockBox).setMaxZ(z + 4);
-                ((BoundingBoxAccessor) blockBox).setMinZ(z - 4);
+                blockBox = new BoundingBox(x, y, z - 4, x + (MAIN_AXIS_LEN - 1), maxY, z + 4);
         }
 
         // The following func call returns null if this new blockbox does not intersect with any pieces in the list.
@@ -87,9 +79,9 @@ public class SideRoomDungeon extends BetterMineshaftPiece {
     }
 
     @Override
-    public void postProcess(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos) {
+    protected void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig) {
         // Fill with stone then clean out with air
-        this.fill(world, box, random, 0, 0, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateRandomizers.brickRandomizer);
+        this.fill(world, box, random, 0, 0, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateSamplers.brickSampler);
         this.fill(world, box, 1, 1, 1, LOCAL_X_END - 1, LOCAL_Y_END - 1, LOCAL_Z_END - 1, AIR);
 
         generateLegs(world, random, box);
@@ -123,9 +115,9 @@ public class SideRoomDungeon extends BetterMineshaftPiece {
     }
 
     private void generateLegs(WorldGenLevel world, Random random, BoundingBox box) {
-        generateLeg(world, random, box, 1, 1, config.blockStateRandomizers.brickRandomizer);
-        generateLeg(world, random, box, 1, LOCAL_Z_END - 1, config.blockStateRandomizers.brickRandomizer);
-        generateLeg(world, random, box, LOCAL_X_END - 1, 1, config.blockStateRandomizers.brickRandomizer);
-        generateLeg(world, random, box, LOCAL_X_END - 1, LOCAL_Z_END - 1, config.blockStateRandomizers.brickRandomizer);
+        generateLeg(world, random, box, 1, 1, config.blockStateSamplers.brickSampler);
+        generateLeg(world, random, box, 1, LOCAL_Z_END - 1, config.blockStateSamplers.brickSampler);
+        generateLeg(world, random, box, LOCAL_X_END - 1, 1, config.blockStateSamplers.brickSampler);
+        generateLeg(world, random, box, LOCAL_X_END - 1, LOCAL_Z_END - 1, config.blockStateSamplers.brickSampler);
     }
 }
@@ -1,6 +1,6 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
 
-import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftGenerator;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftStructurePieceType;
@@ -10,8 +10,7 @@ import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.IntTag;
 import net.minecraft.nbt.ListTag;
-import net.minecraft.world.entity.vehicle.MinecartChest;
-import net.minecraft.world.entity.vehicle.MinecartTNT;
+import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.StructureFeatureManager;
 import net.minecraft.world.level.WorldGenLevel;
@@ -19,7 +18,6 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.PoweredRailBlock;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.properties.BlockStateProperties;
-import net.minecraft.world.level.block.state.properties.WallSide;
 import net.minecraft.world.level.chunk.ChunkGenerator;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.level.levelgen.structure.StructurePiece;
@@ -42,9 +40,13 @@ public class SmallTunnel extends BetterMineshaftPiece {
         LOCAL_X_END = SECONDARY_AXIS_LEN - 1,
         LOCAL_Y_END = Y_AXIS_LEN - 1,
         LOCAL_Z_END = MAIN_AXIS_LEN - 1;
+    private static final BlockState
+        POWERED_RAIL = Blocks.POWERED_RAIL.defaultBlockState().setValue(PoweredRailBlock.POWERED, true),
+        EAST_TORCH = Blocks.WALL_TORCH.defaultBlockState().setValue(BlockStateProperties.HORIZONTAL_FACING, Direction.EAST),
+        WEST_TORCH = Blocks.WALL_TORCH.defaultBlockState().setValue(BlockStateProperties.HORIZONTAL_FACING, Direction.WEST);
 
-    public SmallTunnel(CompoundTag compoundTag) {
-        super(BetterMineshaftStructurePieceType.SMALL_TUNNEL, compoundTag);
+    public SmallTunnel(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        super(BetterMineshaftStructurePieceType.SMALL_TUNNEL, structurePieceSerializationContext, compoundTag);
         ListTag listTag1 = compoundTag.getList("Supports", 3);
         for (int i = 0; i < listTag1.size(); ++i) {
             this.supports.add(listTag1.getInt(i));
@@ -101,12 +103,12 @@ public class SmallTunnel extends BetterMineshaftPiece {
     }
 
     @Override
-    public void postProcess(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos) {
+    protected void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox box, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig) {
         // Randomize blocks
-        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 1, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateRandomizers.mainRandomizer);
+        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 1, 0, LOCAL_X_END, LOCAL_Y_END, LOCAL_Z_END, config.blockStateSamplers.mainSampler);
 
         // Randomize floor
-        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, 0, LOCAL_Z_END, config.blockStateRandomizers.floorRandomizer);
+        this.chanceReplaceNonAir(world, box, random, config.replacementRate, 0, 0, 0, LOCAL_X_END, 0, LOCAL_Z_END, config.blockStateSamplers.floorSampler);
 
         // Fill with air
         this.fill(world, box, 1, 1, 0, LOCAL_X_END - 1, LOCAL_Y_END - 1, LOCAL_Z_END, AIR);
@@ -115,38 +117,32 @@ public class SmallTunnel extends BetterMineshaftPiece {
         this.replaceAirOrChains(world, box, 1, 0, 0, LOCAL_X_END - 1, 0, LOCAL_Z_END, config.blockStates.mainBlockState);
 
         // Decorations
-        generateSupports(world, box, random);
+        generateSupports(world, box, random, modConfig.spawnRates());
         generateRails(world, box, random);
-        generateChestCarts(world, box, random);
-        generateTntCarts(world, box, random);
+        generateChestCarts(world, box, random, modConfig.spawnRates());
+        generateTntCarts(world, box, random, modConfig.spawnRates());
         this.addVines(world, box, random, config.decorationChances.vineChance, 1, 0, 1, LOCAL_X_END - 1, LOCAL_Y_END, LOCAL_Z_END - 1);
         this.addBiomeDecorations(world, box, random, 1, 0, 0, LOCAL_X_END - 1, LOCAL_Y_END - 1, LOCAL_Z_END - 1);
-        generateTorches(world, box, random);
+        generateTorches(world, box, random, modConfig.spawnRates());
         generatePillarsOrChains(world, box, random);
         replaceExistingChainsWithChainBlock(world, box);
     }
 
-    private void generateChestCarts(WorldGenLevel world, BoundingBox box, Random random) {
+    private void generateChestCarts(WorldGenLevel world, BoundingBox box, Random random, ConfigModule.SpawnRates spawnRates) {
+        double spawnRate = spawnRates.smallShaftChestMinecartSpawnRate();
         for (int z = 0; z <= LOCAL_Z_END; z++) {
-            if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftChestMinecartSpawnRate) {
+            if (random.nextFloat() < spawnRate) {
                 BlockPos blockPos = this.getWorldPos(LOCAL_X_END / 2, 1, z);
                 if (box.isInside(blockPos) && !world.getBlockState(blockPos.below()).isAir()) {
-                    MinecartChest chestMinecartEntity = new MinecartChest(world.getLevel(), ((float) blockPos.getX() + 0.5F), ((float) blockPos.getY() + 0.5F), ((float) blockPos.getZ() + 0.5F));
-                    chestMinecartEntity.setLootTable(BuiltInLootTables.ABANDONED_MINESHAFT, random.nextLong());
-                    world.addFreshEntity(chestMinecartEntity);
+                    this.addMinecart(world, EntityType.CHEST_MINECART, blockPos, BuiltInLootTables.ABANDONED_MINESHAFT, random.nextLong());
                 }
             }
         }
     }
 
-    private void generateSupports(WorldGenLevel world, BoundingBox box, Random random) {
-        float cobwebChance = (float) BetterMineshaftsCommon.CONFIG.spawnRates.cobwebSpawnRate;
-        BlockState supportBlock = config.blockStates.supportBlockState;
-        if (supportBlock.getProperties().contains(BlockStateProperties.EAST_WALL) && supportBlock.getProperties().contains(BlockStateProperties.WEST_WALL)) {
-            supportBlock = supportBlock.setValue(BlockStateProperties.EAST_WALL, WallSide.TALL).setValue(BlockStateProperties.WEST_WALL, WallSide.TALL);
-        } else if (supportBlock.getProperties().contains(BlockStateProperties.EAST) && supportBlock.getProperties().contains(BlockStateProperties.WEST)) {
-            supportBlock = supportBlock.setValue(BlockStateProperties.EAST, true).setValue(BlockStateProperties.WEST, true);
-        }
+    private void generateSupports(WorldGenLevel world, BoundingBox box, Random random, ConfigModule.SpawnRates spawnRates) {
+        float cobwebChance = (float) spawnRates.cobwebSpawnRate();
+        BlockState supportBlock = config.derivedBlockStates.supportBlockStateEastWest;
 
         for (int z : this.supports) {
             // Check if the area is covered. We only need to spawn supports in covered areas.
@@ -184,41 +180,41 @@ public class SmallTunnel extends BetterMineshaftPiece {
 
         // Place powered rails
         for (int n = 0; n <= LOCAL_Z_END; n++) {
-            this.chanceReplaceAir(world, random, .07f, Blocks.POWERED_RAIL.defaultBlockState().setValue(PoweredRailBlock.POWERED, true), 2, 1, n, box);
+            this.chanceReplaceAir(world, random, .07f, POWERED_RAIL, 2, 1, n, box);
         }
     }
 
-    private void generateTntCarts(WorldGenLevel world, BoundingBox box, Random random) {
+    private void generateTntCarts(WorldGenLevel world, BoundingBox box, Random random, ConfigModule.SpawnRates spawnRates) {
+        double spawnRate = spawnRates.smallShaftTntMinecartSpawnRate();
         for (int z = 0; z <= LOCAL_Z_END; z++) {
-            if (random.nextFloat() < BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftTntMinecartSpawnRate) {
+            if (random.nextFloat() < spawnRate) {
                 BlockPos blockPos = this.getWorldPos(LOCAL_X_END / 2, 1, z);
                 if (box.isInside(blockPos) && !world.getBlockState(blockPos.below()).isAir()) {
-                    MinecartTNT tntMinecartEntity = new MinecartTNT(world.getLevel(), ((float) blockPos.getX() + 0.5F), ((float) blockPos.getY() + 0.5F), ((float) blockPos.getZ() + 0.5F));
-                    world.addFreshEntity(tntMinecartEntity);
+                    this.addMinecart(world, EntityType.TNT_MINECART, blockPos, null, 0);
                 }
             }
         }
     }
 
-    private void generateTorches(WorldGenLevel world, BoundingBox box, Random random) {
-        BlockState torchBlock = Blocks.WALL_TORCH.defaultBlockState();
+    private void generateTorches(WorldGenLevel world, BoundingBox box, Random random, ConfigModule.SpawnRates spawnRates) {
+        double torchSpawnRate = spawnRates.torchSpawnRate();
         float r;
         for (int z = 0; z <= LOCAL_Z_END; z++) {
             if (this.supports.contains(z)) continue;
             r = random.nextFloat();
-            if (r < BetterMineshaftsCommon.CONFIG.spawnRates.torchSpawnRate / 2) {
+            if (r < torchSpawnRate / 2) {
                 BlockPos pos = this.getWorldPos(1, 2, z);
                 BlockPos adjPos = this.getWorldPos(0, 2, z);
                 boolean canPlace = world.getBlockState(pos).isAir() && world.getBlockState(adjPos) != AIR;
                 if (canPlace) {
-                    this.replaceAirOrChains(world, box, 1, 2, z, 1, 2, z, torchBlock.setValue(BlockStateProperties.HORIZONTAL_FACING, Direction.EAST));
+                    this.replaceAirOrChains(world, box, 1, 2, z, 1, 2, z, EAST_TORCH);
                 }
-            } else if (r < BetterMineshaftsCommon.CONFIG.spawnRates.torchSpawnRate) {
+            } else if (r < torchSpawnRate) {
                 BlockPos pos = this.getWorldPos(LOCAL_X_END - 1, 2, z);
                 BlockPos adjPos = this.getWorldPos(LOCAL_X_END, 2, z);
                 boolean canPlace = world.getBlockState(pos).isAir() && world.getBlockState(adjPos) != AIR;
                 if (canPlace) {
-                    this.replaceAirOrChains(world, box, LOCAL_X_END - 1, 2, z, LOCAL_X_END - 1, 2, z, torchBlock.setValue(BlockStateProperties.HORIZONTAL_FACING, Direction.WEST));
+                    this.replaceAirOrChains(world, box, LOCAL_X_END - 1, 2, z, LOCAL_X_END - 1, 2, z, WEST_TORCH);
                 }
             }
         }
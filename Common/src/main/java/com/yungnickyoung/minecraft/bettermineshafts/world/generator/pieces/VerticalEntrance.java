@@ -1,14 +1,15 @@
 package com.yungnickyoung.minecraft.bettermineshafts.world.generator.pieces;
 
 import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModule;
+import com.yungnickyoung.minecraft.bettermineshafts.world.MineshaftMetrics;
 import com.yungnickyoung.minecraft.bettermineshafts.world.config.BetterMineshaftFeatureConfiguration;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftGenerator;
 import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BetterMineshaftStructurePieceType;
-import com.yungnickyoung.minecraft.yungsapi.world.SurfaceHelper;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.SurfaceHeightSampler;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.server.level.ColumnPos;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.StructureFeatureManager;
 import net.minecraft.world.level.WorldGenLevel;
@@ -21,56 +22,125 @@ import net.minecraft.world.level.levelgen.structure.StructurePieceAccessor;
 import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSerializationContext;
 
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class VerticalEntrance extends BetterMineshaftPiece {
     private final BlockPos centerPos;
-    private int  // height of vertical shaft depends on surface terrain
-        yAxisLen = 0,
-        localYEnd = 0;
-    private int // Surface tunnel vars
-        tunnelLength = 0,
-        tunnelFloorAltitude = 0;
-    private Direction tunnelDirection = Direction.NORTH;
-    private boolean hasTunnel = false;
+
+    /**
+     * The surface tunnel plan depends on surface terrain. It is normally decided from the chunk generator when the start
+     * is laid out, see {@link #planSurfaceTunnel}, and saved with the piece.
+     * Pieces without a plan (e.g. from older saves) determine it from the world at generation time instead.
+     * Any of the chunks this piece overlaps may be the first to do so, possibly on different worldgen threads,
+     * so the plan is computed once and published atomically. Every chunk then builds from the same plan.
+     */
+    private final AtomicReference<SurfaceTunnelPlan> surfaceTunnelPlan = new AtomicReference<>();
+
+    /**
+     * The bounds of the piece's local coordinate space.
+     * This is the piece's initial bounding box, which reserves room for any surface tunnel during layout.
+     * Once the plan is known the bounding box shrinks to what the piece actually touches, so local coordinates
+     * are resolved against this frame instead of the bounding box.
+     */
+    private final int frameMinX, frameMaxX, frameMinY, frameMinZ, frameMaxZ;
 
     // Vertical shaft static vars
     private static final int
         SHAFT_LOCAL_XZ_START = 22,
         SHAFT_LOCAL_XZ_END = 26;
 
-    public VerticalEntrance(CompoundTag compoundTag) {
-        super(BetterMineshaftStructurePieceType.VERTICAL_ENTRANCE, compoundTag);
+    public VerticalEntrance(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
+        super(BetterMineshaftStructurePieceType.VERTICAL_ENTRANCE, structurePieceSerializationContext, compoundTag);
         int centerPosX = compoundTag.getIntArray("centerPos")[0];
         int centerPosY = compoundTag.getIntArray("centerPos")[1];
         int centerPosZ = compoundTag.getIntArray("centerPos")[2];
         this.centerPos = new BlockPos(centerPosX, centerPosY, centerPosZ);
-
-        this.yAxisLen = compoundTag.getInt("yAxisLen");
-        this.localYEnd = this.yAxisLen - 1;
-        this.tunnelLength = compoundTag.getInt("tunnelLen");
-        this.tunnelFloorAltitude = compoundTag.getInt("floorAltitude");
-
-        int tunnelDirInt = compoundTag.getInt("tunnelDir");
-        this.tunnelDirection = tunnelDirInt == -1 ? null : Direction.from2DDataValue(tunnelDirInt);
-
-        this.hasTunnel = compoundTag.getBoolean("hasTunnel");
+        this.frameMinX = centerPosX - 24;
+        this.frameMaxX = centerPosX + 24;
+        this.frameMinY = centerPosY;
+        this.frameMinZ = centerPosZ - 24;
+        this.frameMaxZ = centerPosZ + 24;
+
+        // Pieces saved without a tunnel from before plans were decided during layout have their plan determined once they generate
+        SurfaceTunnelPlan plan = null;
+        if (compoundTag.getBoolean("hasTunnel")) {
+            plan = createPlan(
+                    Direction.from2DDataValue(compoundTag.getInt("tunnelDir")),
+                    compoundTag.getInt("tunnelLen"),
+                    compoundTag.getInt("floorAltitude"),
+                    compoundTag.getInt("yAxisLen"));
+        } else if (compoundTag.getBoolean("tunnelPlanned")) {
+            plan = createEmptyPlan();
+        }
+        if (plan != null) {
+            this.surfaceTunnelPlan.set(plan);
+            this.boundingBox = plan.boundingBox();
+        }
     }
 
     public VerticalEntrance(int pieceChainLen, BlockPos.MutableBlockPos centerPos, Direction direction, BetterMineshaftFeatureConfiguration config, int maxBuildHeight) {
         super(BetterMineshaftStructurePieceType.VERTICAL_ENTRANCE, pieceChainLen, config, getInitialBoundingBox(centerPos, maxBuildHeight));
         this.setOrientation(direction);
         this.centerPos = centerPos; // position passed in is center of shaft piece (unlike all other pieces, where it is a corner)
+        this.frameMinX = this.boundingBox.minX();
+        this.frameMaxX = this.boundingBox.maxX();
+        this.frameMinY = this.boundingBox.minY();
+        this.frameMinZ = this.boundingBox.minZ();
+        this.frameMaxZ = this.boundingBox.maxZ();
     }
 
     @Override
     protected void addAdditionalSaveData(StructurePieceSerializationContext structurePieceSerializationContext, CompoundTag compoundTag) {
         super.addAdditionalSaveData(structurePieceSerializationContext, compoundTag);
         compoundTag.putIntArray("centerPos", new int[]{centerPos.getX(), centerPos.getY(), centerPos.getZ()});
-        compoundTag.putInt("yAxisLen", yAxisLen);
-        compoundTag.putInt("tunnelLen", tunnelLength);
-        compoundTag.putInt("floorAltitude", tunnelFloorAltitude);
-        compoundTag.putInt("tunnelDir", tunnelDirection.get2DDataValue());
-        compoundTag.putBoolean("hasTunnel", hasTunnel);
+        SurfaceTunnelPlan plan = this.surfaceTunnelPlan.get();
+        compoundTag.putBoolean("tunnelPlanned", plan != null);
+        if (plan == null) plan = createEmptyPlan();
+        compoundTag.putInt("yAxisLen", plan.yAxisLen());
+        compoundTag.putInt("tunnelLen", plan.tunnelLength());
+        compoundTag.putInt("floorAltitude", plan.tunnelFloorAltitude());
+        compoundTag.putInt("tunnelDir", plan.tunnelDirection().get2DDataValue());
+        compoundTag.putBoolean("hasTunnel", plan.hasTunnel());
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        // Read through the published plan so other worldgen threads see the shrunk box safely
+        SurfaceTunnelPlan plan = this.surfaceTunnelPlan.get();
+        return plan == null ? this.boundingBox : plan.boundingBox();
+    }
+
+    @Override
+    protected int getWorldX(int x, int z) {
+        Direction direction = this.getOrientation();
+        if (direction == null) {
+            return x;
+        }
+        return switch (direction) {
+            case NORTH, SOUTH -> this.frameMinX + x;
+            case WEST -> this.frameMaxX - z;
+            case EAST -> this.frameMinX + z;
+            default -> x;
+        };
+    }
+
+    @Override
+    protected int getWorldY(int y) {
+        return this.getOrientation() == null ? y : y + this.frameMinY;
+    }
+
+    @Override
+    protected int getWorldZ(int x, int z) {
+        Direction direction = this.getOrientation();
+        if (direction == null) {
+            return z;
+        }
+        return switch (direction) {
+            case NORTH -> this.frameMaxZ - z;
+            case SOUTH -> this.frameMinZ + z;
+            case WEST, EAST -> this.frameMinZ + x;
+            default -> z;
+        };
     }
 
     private static BoundingBox getInitialBoundingBox(BlockPos centerPos, int maxBuildHeight) {
@@ -101,35 +171,74 @@ public class VerticalEntrance extends BetterMineshaftPiece {
     }
 
     @Override
-    public void postProcess(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox boundingBox, ChunkPos chunkPos, BlockPos blockPos) {
-        if (BetterMineshaftsCommon.DEBUG_LOG) {
-            BetterMineshaftsCommon.count.incrementAndGet();
-        }
-
+    protected void generatePiece(WorldGenLevel world, StructureFeatureManager structureFeatureManager, ChunkGenerator chunkGenerator, Random random, BoundingBox boundingBox, ChunkPos chunkPos, BlockPos blockPos, ConfigModule modConfig) {
         // Only generate vertical entrance if there is valid surrounding terrain
-        if (!this.hasTunnel) {
-            determineDirection(world);
+        SurfaceTunnelPlan plan = getSurfaceTunnelPlan(world);
 
-            if (BetterMineshaftsCommon.DEBUG_LOG && this.hasTunnel) {
-                BetterMineshaftsCommon.surfaceEntrances.add(this.centerPos.hashCode());
-                BetterMineshaftsCommon.LOGGER.info(String.format("(%d, %d) --- %d / %d  (%f%%)", centerPos.getX(), centerPos.getZ(), BetterMineshaftsCommon.surfaceEntrances.size(), BetterMineshaftsCommon.count.get(), (float) BetterMineshaftsCommon.surfaceEntrances.size() * 100 / BetterMineshaftsCommon.count.get()));
-            }
+        // Chunks outside the shaft and tunnel have nothing to place.
+        // Returning before any random calls keeps generation the same whether or not the chunk ran before the box shrunk.
+        if (!plan.boundingBox().intersects(boundingBox)) {
+            return;
         }
 
-        if (this.hasTunnel) {
-            generateVerticalShaft(world, random, boundingBox);
+        if (plan.hasTunnel()) {
+            generateVerticalShaft(world, random, boundingBox, plan);
             // Build surface tunnel.
             // This must be done dynamically since its length depends on terrain.
-            generateSurfaceTunnel(world, random, boundingBox);
+            generateSurfaceTunnel(world, random, boundingBox, plan);
         }
     }
 
+    /**
+     * Decides the surface tunnel while the start is laid out, shrinking the piece to its final size before any chunk generates it.
+     * Called once all pieces are laid out, so the initial bounding box still reserves room for the tunnel during layout.
+     */
+    public void planSurfaceTunnel(SurfaceHeightSampler surfaceHeights) {
+        SurfaceTunnelPlan plan = determineSurfaceTunnelPlan(surfaceHeights);
+        this.surfaceTunnelPlan.set(plan);
+        this.boundingBox = plan.boundingBox();
+        recordPlan(plan);
+    }
+
+    private static void recordPlan(SurfaceTunnelPlan plan) {
+        MineshaftMetrics.SURFACE_PLANS.increment();
+        if (plan.hasTunnel()) {
+            MineshaftMetrics.SURFACE_TUNNELS.increment();
+        }
+    }
+
+    /**
+     * Returns this piece's surface tunnel plan, determining it from the world first if no chunk has done so yet.
+     * If several chunks race to determine it, the first one to publish its plan wins and the others use that plan.
+     */
+    private SurfaceTunnelPlan getSurfaceTunnelPlan(WorldGenLevel world) {
+        SurfaceTunnelPlan plan = this.surfaceTunnelPlan.get();
+        if (plan != null) {
+            return plan;
+        }
+
+        SurfaceTunnelPlan determinedPlan = determineSurfaceTunnelPlan(SurfaceHeightSampler.ofLevel(world));
+        plan = this.surfaceTunnelPlan.compareAndExchange(null, determinedPlan);
+        if (plan != null) {
+            return plan;
+        }
+
+        // Shrink the box so chunks the shaft and tunnel don't reach skip this piece from now on.
+        // The field is also what gets saved, so reloaded starts keep the tight box.
+        this.boundingBox = determinedPlan.boundingBox();
+
+        recordPlan(determinedPlan);
+        return determinedPlan;
+    }
+
     /**
      * Generates the vertical shaft with a ladder.
      */
-    private void generateVerticalShaft(WorldGenLevel world, Random random, BoundingBox box) {
+    private void generateVerticalShaft(WorldGenLevel world, Random random, BoundingBox box, SurfaceTunnelPlan plan) {
+        int localYEnd = plan.yAxisLen() - 1;
+
         // Randomize blocks
-        this.chanceReplaceNonAir(world, box, random, config.replacementRate, SHAFT_LOCAL_XZ_START, 0, SHAFT_LOCAL_XZ_START, SHAFT_LOCAL_XZ_END, localYEnd, SHAFT_LOCAL_XZ_END, config.blockStateRandomizers.mainRandomizer);
+        this.chanceReplaceNonAir(world, box, random, config.replacementRate, SHAFT_LOCAL_XZ_START, 0, SHAFT_LOCAL_XZ_START, SHAFT_LOCAL_XZ_END, localYEnd, SHAFT_LOCAL_XZ_END, config.blockStateSamplers.mainSampler);
 
         // Fill any holes in wall with main block
         this.replaceAirOrChains(world, box, SHAFT_LOCAL_XZ_START, 0, SHAFT_LOCAL_XZ_START, SHAFT_LOCAL_XZ_END, localYEnd, SHAFT_LOCAL_XZ_END, config.blockStates.mainBlockState);
@@ -154,10 +263,10 @@ public class VerticalEntrance extends BetterMineshaftPiece {
         this.addVines(world, box, random, config.decorationChances.vineChance, SHAFT_LOCAL_XZ_START + 1, 0, SHAFT_LOCAL_XZ_START + 1, SHAFT_LOCAL_XZ_END - 1, localYEnd - 4, SHAFT_LOCAL_XZ_END - 1);
 
         // Leg supports underneath to prevent floating
-        generateLeg(world, random, box, SHAFT_LOCAL_XZ_START, SHAFT_LOCAL_XZ_START, config.blockStateRandomizers.legRandomizer);
-        generateLeg(world, random, box, SHAFT_LOCAL_XZ_START, SHAFT_LOCAL_XZ_END, config.blockStateRandomizers.legRandomizer);
-        generateLeg(world, random, box, SHAFT_LOCAL_XZ_END, SHAFT_LOCAL_XZ_START, config.blockStateRandomizers.legRandomizer);
-        generateLeg(world, random, box, SHAFT_LOCAL_XZ_END, SHAFT_LOCAL_XZ_END, config.blockStateRandomizers.legRandomizer);
+        generateLeg(world, random, box, SHAFT_LOCAL_XZ_START, SHAFT_LOCAL_XZ_START, config.blockStateSamplers.legSampler);
+        generateLeg(world, random, box, SHAFT_LOCAL_XZ_START, SHAFT_LOCAL_XZ_END, config.blockStateSamplers.legSampler);
+        generateLeg(world, random, box, SHAFT_LOCAL_XZ_END, SHAFT_LOCAL_XZ_START, config.blockStateSamplers.legSampler);
+        generateLeg(world, random, box, SHAFT_LOCAL_XZ_END, SHAFT_LOCAL_XZ_END, config.blockStateSamplers.legSampler);
     }
 
     /**
@@ -166,51 +275,22 @@ public class VerticalEntrance extends BetterMineshaftPiece {
      * as is normally the case. Rotation logic must be handled manually for this piece because the piece's orientation
      * relies on the surrounding terrain, which can't be determined until generation time.
      */
-    private void generateSurfaceTunnel(WorldGenLevel world, Random random, BoundingBox box) {
-        int tunnelStartX = 0,
-            tunnelStartZ = 0,
-            tunnelEndX = 0,
-            tunnelEndZ = 0;
+    private void generateSurfaceTunnel(WorldGenLevel world, Random random, BoundingBox box, SurfaceTunnelPlan plan) {
+        Direction tunnelDirection = plan.tunnelDirection();
+        int tunnelFloorAltitude = plan.tunnelFloorAltitude();
+        BoundingBox tunnelBox = getLocalTunnelBox(tunnelDirection, plan.tunnelLength(), tunnelFloorAltitude);
+        int tunnelStartX = tunnelBox.minX(),
+            tunnelStartZ = tunnelBox.minZ(),
+            tunnelEndX = tunnelBox.maxX(),
+            tunnelEndZ = tunnelBox.maxZ();
         Direction facing = this.getOrientation();
 
-        // We have to account for this piece's rotation.
-        // This is normally handled internally, but must be tweaked manually for surface tunnels
-        // since their orientation is not determined until generation time.
-        float rotationDifference = facing.toYRot() - tunnelDirection.toYRot();
-        Direction relativeTunnelDir = Direction.fromYRot(Direction.NORTH.toYRot() - rotationDifference);
-        if (relativeTunnelDir == Direction.NORTH) {
-            tunnelStartX = 22;
-            tunnelStartZ = 26;
-            tunnelEndX = 26;
-            tunnelEndZ = 26 + tunnelLength;
-        } else if (
-            (relativeTunnelDir == Direction.WEST && !(facing == Direction.SOUTH || facing == Direction.WEST)) ||
-            (relativeTunnelDir == Direction.EAST && (facing == Direction.SOUTH || facing == Direction.WEST))
-        ) {
-            tunnelStartX = 22 - tunnelLength;
-            tunnelStartZ = 22;
-            tunnelEndX = 22;
-            tunnelEndZ = 26;
-        } else if (relativeTunnelDir == Direction.SOUTH) {
-            tunnelStartX = 22;
-            tunnelStartZ = 22 - tunnelLength;
-            tunnelEndX = 26;
-            tunnelEndZ = 22;
-        } else if (
-            relativeTunnelDir == Direction.EAST || relativeTunnelDir == Direction.WEST
-        ) {
-            tunnelStartX = 26;
-            tunnelStartZ = 22;
-            tunnelEndX = 26 + tunnelLength;
-            tunnelEndZ = 26;
-        }
-
         // ################################################################
         // #                            Tunnel                            #
         // ################################################################
 
         // Randomize blocks
-        this.chanceReplaceNonAir(world, box, random, .6f, tunnelStartX, tunnelFloorAltitude, tunnelStartZ, tunnelEndX, tunnelFloorAltitude + 4, tunnelEndZ, config.blockStateRandomizers.mainRandomizer);
+        this.chanceReplaceNonAir(world, box, random, .6f, tunnelStartX, tunnelFloorAltitude, tunnelStartZ, tunnelEndX, tunnelFloorAltitude + 4, tunnelEndZ, config.blockStateSamplers.mainSampler);
 
         if (facing.getAxis() == tunnelDirection.getAxis()) {
             // Fill in any air in floor with main block
@@ -293,23 +373,97 @@ public class VerticalEntrance extends BetterMineshaftPiece {
         }
     }
 
+    /**
+     * Returns the area of the surface tunnel, in local coordinates.
+     */
+    private BoundingBox getLocalTunnelBox(Direction tunnelDirection, int tunnelLength, int tunnelFloorAltitude) {
+        int tunnelStartX = 0,
+            tunnelStartZ = 0,
+            tunnelEndX = 0,
+            tunnelEndZ = 0;
+        Direction facing = this.getOrientation();
+
+        // We have to account for this piece's rotation.
+        // This is normally handled internally, but must be tweaked manually for surface tunnels
+        // since their orientation is not determined until generation time.
+        float rotationDifference = facing.toYRot() - tunnelDirection.toYRot();
+        Direction relativeTunnelDir = Direction.fromYRot(Direction.NORTH.toYRot() - rotationDifference);
+        if (relativeTunnelDir == Direction.NORTH) {
+            tunnelStartX = 22;
+            tunnelStartZ = 26;
+            tunnelEndX = 26;
+            tunnelEndZ = 26 + tunnelLength;
+        } else if (
+            (relativeTunnelDir == Direction.WEST && !(facing == Direction.SOUTH || facing == Direction.WEST)) ||
+            (relativeTunnelDir == Direction.EAST && (facing == Direction.SOUTH || facing == Direction.WEST))
+        ) {
+            tunnelStartX = 22 - tunnelLength;
+            tunnelStartZ = 22;
+            tunnelEndX = 22;
+            tunnelEndZ = 26;
+        } else if (relativeTunnelDir == Direction.SOUTH) {
+            tunnelStartX = 22;
+            tunnelStartZ = 22 - tunnelLength;
+            tunnelEndX = 26;
+            tunnelEndZ = 22;
+        } else if (
+            relativeTunnelDir == Direction.EAST || relativeTunnelDir == Direction.WEST
+        ) {
+            tunnelStartX = 26;
+            tunnelStartZ = 22;
+            tunnelEndX = 26 + tunnelLength;
+            tunnelEndZ = 26;
+        }
+
+        return new BoundingBox(tunnelStartX, tunnelFloorAltitude, tunnelStartZ, tunnelEndX, tunnelFloorAltitude + 4, tunnelEndZ);
+    }
+
+    private SurfaceTunnelPlan createPlan(Direction tunnelDirection, int tunnelLength, int tunnelFloorAltitude, int yAxisLen) {
+        BoundingBox tunnelBox = getLocalTunnelBox(tunnelDirection, tunnelLength, tunnelFloorAltitude);
+
+        // Everything the shaft and tunnel place, plus one block for the cobwebs next to tunnel supports.
+        // Leg supports go below the shaft, but they stay within its footprint.
+        int minX = Math.min(SHAFT_LOCAL_XZ_START, tunnelBox.minX()) - 1,
+            minZ = Math.min(SHAFT_LOCAL_XZ_START, tunnelBox.minZ()) - 1,
+            maxX = Math.max(SHAFT_LOCAL_XZ_END, tunnelBox.maxX()) + 1,
+            maxZ = Math.max(SHAFT_LOCAL_XZ_END, tunnelBox.maxZ()) + 1,
+            maxY = Math.max(yAxisLen - 1, tunnelBox.maxY());
+        return new SurfaceTunnelPlan(true, tunnelDirection, tunnelLength, tunnelFloorAltitude, yAxisLen, getClampedWorldBox(minX, 0, minZ, maxX, maxY, maxZ));
+    }
+
+    private SurfaceTunnelPlan createEmptyPlan() {
+        return new SurfaceTunnelPlan(false, Direction.NORTH, 0, 0, 0, getClampedWorldBox(SHAFT_LOCAL_XZ_START, 0, SHAFT_LOCAL_XZ_START, SHAFT_LOCAL_XZ_END, 0, SHAFT_LOCAL_XZ_END));
+    }
+
+    /**
+     * Converts a local area to world coordinates, clamped to the initial bounding box.
+     * Anything outside the initial box was never placed, since chunks outside it never generated this piece.
+     */
+    private BoundingBox getClampedWorldBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int x0 = this.getWorldX(minX, minZ), x1 = this.getWorldX(maxX, maxZ),
+            z0 = this.getWorldZ(minX, minZ), z1 = this.getWorldZ(maxX, maxZ);
+        return new BoundingBox(
+                Math.max(Math.min(x0, x1), this.frameMinX),
+                this.getWorldY(minY),
+                Math.max(Math.min(z0, z1), this.frameMinZ),
+                Math.min(Math.max(x0, x1), this.frameMaxX),
+                this.getWorldY(maxY),
+                Math.min(Math.max(z0, z1), this.frameMaxZ));
+    }
+
     /**
      * Determines the direction to spawn the surface tunnel in.
      * Tries to find a direction in which there is a drop-off, with the goal of creating an opening
      * in the face of a mountain or hill.
      */
-    private void determineDirection(WorldGenLevel world) {
+    private SurfaceTunnelPlan determineSurfaceTunnelPlan(SurfaceHeightSampler surfaceHeights) {
         int minSurfaceHeight = 255;
 
         // Set height for this, equal to 2 below the min height in the 5x5 vertical shaft piece
         for (int xOffset = -2; xOffset <= 2; xOffset++) {
             for (int zOffset = -2; zOffset <= 2; zOffset++) {
                 try {
-                    int realX = centerPos.getX() + xOffset,
-                        realZ = centerPos.getZ() + zOffset;
-                    int chunkX = realX >> 4,
-                        chunkZ = realZ >> 4;
-                    int surfaceHeight = SurfaceHelper.getSurfaceHeight(world.getChunk(chunkX, chunkZ), new ColumnPos(realX, realZ));
+                    int surfaceHeight = surfaceHeights.getSurfaceHeight(centerPos.getX() + xOffset, centerPos.getZ() + zOffset);
                     if (surfaceHeight > 1) {
                         minSurfaceHeight = Math.min(minSurfaceHeight, surfaceHeight);
                     }
@@ -322,14 +476,11 @@ public class VerticalEntrance extends BetterMineshaftPiece {
         }
 
         // Require surface opening to be above sea level
-        if (minSurfaceHeight < 60 || minSurfaceHeight == 255) return;
+        if (minSurfaceHeight < 60 || minSurfaceHeight == 255) return createEmptyPlan();
 
         int ceilingHeight = minSurfaceHeight - 2;
         int floorHeight = ceilingHeight - 4;
-
-        // Update
-        yAxisLen = ceilingHeight - centerPos.getY() + 1;
-        localYEnd = yAxisLen - 1;
+        int yAxisLen = ceilingHeight - centerPos.getY() + 1;
 
         BlockPos.MutableBlockPos mutable = centerPos.mutable();
 
@@ -345,19 +496,27 @@ public class VerticalEntrance extends BetterMineshaftPiece {
 
                 // Check altitude of each individual block along the direction.
                 for (int i = radialDist * radius; i < radialDist * radius + radius; i++) {
-                    int surfaceHeight = SurfaceHelper.getSurfaceHeight(world.getChunk(mutable), new ColumnPos(mutable.getX(), mutable.getZ()));
+                    int surfaceHeight = surfaceHeights.getSurfaceHeight(mutable.getX(), mutable.getZ());
 
                     if (surfaceHeight <= floorHeight && surfaceHeight > 1) {
-                        this.hasTunnel = true;
-                        this.tunnelDirection = direction;
-                        this.tunnelFloorAltitude = ceilingHeight - 4 - this.boundingBox.minY();
-                        this.tunnelLength = i;
-                        return;
+                        return createPlan(direction, i, ceilingHeight - 4 - centerPos.getY(), yAxisLen);
                     }
 
                     mutable.move(direction);
                 }
             }
         }
+
+        return createEmptyPlan();
+    }
+
+    /**
+     * The terrain-dependent layout of the vertical shaft and its surface tunnel.
+     *
+     * @param tunnelFloorAltitude the tunnel floor's y-coordinate, relative to the bottom of the shaft
+     * @param yAxisLen the height of the vertical shaft
+     * @param boundingBox the world-space area the shaft and tunnel touch
+     */
+    private record SurfaceTunnelPlan(boolean hasTunnel, Direction tunnelDirection, int tunnelLength, int tunnelFloorAltitude, int yAxisLen, BoundingBox boundingBox) {
     }
 }
@@ -17,6 +17,15 @@ public class BMConfigFabric implements ConfigData {
     @ConfigEntry.Gui.Tooltip
     public boolean disableVanillaMineshafts = true;
 
+    @ConfigEntry.Gui.Tooltip(count = 2)
+    public boolean legacySpawnRoll = true;
+
+    @ConfigEntry.Gui.Tooltip(count = 2)
+    public boolean fastRng = false;
+
+    @ConfigEntry.Gui.Tooltip(count = 2)
+    public int statsLogInterval = 0;
+
     @ConfigEntry.Gui.CollapsibleObject
     @ConfigEntry.Gui.Tooltip
     public ConfigSpawnRatesFabric spawnRates = new ConfigSpawnRatesFabric();
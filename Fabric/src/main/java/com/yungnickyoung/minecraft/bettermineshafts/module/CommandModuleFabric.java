@@ -0,0 +1,12 @@
+package com.yungnickyoung.minecraft.bettermineshafts.module;
+
+import com.yungnickyoung.minecraft.bettermineshafts.world.MineshaftMetrics;
+import net.fabricmc.fabric.api.command.v1.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+
+public class CommandModuleFabric {
+    public static void init() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, dedicated) -> CommandModule.registerCommands(dispatcher));
+        ServerTickEvents.END_SERVER_TICK.register(server -> MineshaftMetrics.tick());
+    }
+}
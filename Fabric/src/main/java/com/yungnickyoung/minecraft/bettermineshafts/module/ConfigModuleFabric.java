@@ -21,30 +21,36 @@ public class ConfigModuleFabric {
     }
 
     private static void bakeConfig(BMConfigFabric configFabric) {
-        BetterMineshaftsCommon.CONFIG.mineshaftSpawnRate = configFabric.mineshaftSpawnRate;
-        BetterMineshaftsCommon.CONFIG.minY = configFabric.minY;
-        BetterMineshaftsCommon.CONFIG.maxY = configFabric.maxY;
-        BetterMineshaftsCommon.CONFIG.disableVanillaMineshafts = configFabric.disableVanillaMineshafts;
-        BetterMineshaftsCommon.CONFIG.ores.enabled = configFabric.ores.enabled;
-        BetterMineshaftsCommon.CONFIG.ores.cobble = configFabric.ores.cobble;
-        BetterMineshaftsCommon.CONFIG.ores.coal = configFabric.ores.coal;
-        BetterMineshaftsCommon.CONFIG.ores.iron = configFabric.ores.iron;
-        BetterMineshaftsCommon.CONFIG.ores.redstone = configFabric.ores.redstone;
-        BetterMineshaftsCommon.CONFIG.ores.gold = configFabric.ores.gold;
-        BetterMineshaftsCommon.CONFIG.ores.lapis = configFabric.ores.lapis;
-        BetterMineshaftsCommon.CONFIG.ores.emerald = configFabric.ores.emerald;
-        BetterMineshaftsCommon.CONFIG.ores.diamond = configFabric.ores.diamond;
-        BetterMineshaftsCommon.CONFIG.spawnRates.lanternSpawnRate = configFabric.spawnRates.lanternSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.torchSpawnRate = configFabric.spawnRates.torchSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.workstationSpawnRate = configFabric.spawnRates.workstationSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.workstationDungeonSpawnRate = configFabric.spawnRates.workstationDungeonSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftSpawnRate = configFabric.spawnRates.smallShaftSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.cobwebSpawnRate = configFabric.spawnRates.cobwebSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftChestMinecartSpawnRate = configFabric.spawnRates.smallShaftChestMinecartSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftTntMinecartSpawnRate = configFabric.spawnRates.smallShaftTntMinecartSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.mainShaftChestMinecartSpawnRate = configFabric.spawnRates.mainShaftChestMinecartSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.mainShaftTntMinecartSpawnRate = configFabric.spawnRates.mainShaftTntMinecartSpawnRate;
-        BetterMineshaftsCommon.CONFIG.spawnRates.zombieVillagerRoomSpawnRate = configFabric.spawnRates.zombieVillagerRoomSpawnChance;
-        BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftPieceChainLength = configFabric.spawnRates.smallShaftPieceChainLength;
+        BetterMineshaftsCommon.CONFIG = new ConfigModule(
+                configFabric.mineshaftSpawnRate,
+                configFabric.minY,
+                configFabric.maxY,
+                configFabric.disableVanillaMineshafts,
+                configFabric.legacySpawnRoll,
+                configFabric.fastRng,
+                configFabric.statsLogInterval,
+                new ConfigModule.Ores(
+                        configFabric.ores.enabled,
+                        configFabric.ores.cobble,
+                        configFabric.ores.coal,
+                        configFabric.ores.iron,
+                        configFabric.ores.redstone,
+                        configFabric.ores.gold,
+                        configFabric.ores.lapis,
+                        configFabric.ores.emerald,
+                        configFabric.ores.diamond),
+                new ConfigModule.SpawnRates(
+                        configFabric.spawnRates.lanternSpawnRate,
+                        configFabric.spawnRates.torchSpawnRate,
+                        configFabric.spawnRates.workstationSpawnRate,
+                        configFabric.spawnRates.workstationDungeonSpawnRate,
+                        configFabric.spawnRates.smallShaftSpawnRate,
+                        configFabric.spawnRates.cobwebSpawnRate,
+                        configFabric.spawnRates.smallShaftChestMinecartSpawnRate,
+                        configFabric.spawnRates.smallShaftTntMinecartSpawnRate,
+                        configFabric.spawnRates.mainShaftChestMinecartSpawnRate,
+                        configFabric.spawnRates.mainShaftTntMinecartSpawnRate,
+                        configFabric.spawnRates.zombieVillagerRoomSpawnChance,
+                        configFabric.spawnRates.smallShaftPieceChainLength));
     }
 }
@@ -7,5 +7,6 @@ import net.minecraft.resources.ResourceLocation;
 public class StructureFeatureModuleFabric {
     public static void init() {
         Registry.register(Registry.STRUCTURE_FEATURE, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "mineshaft"), StructureFeatureModule.BETTER_MINESHAFT);
+        Registry.register(Registry.STRUCTURE_FEATURE, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "mineshaft_variants"), StructureFeatureModule.BETTER_MINESHAFT_VARIANTS);
     }
 }
@@ -24,7 +24,7 @@ public class StructureFeaturePieceModuleFabric {
         BetterMineshaftStructurePieceType.ZOMBIE_VILLAGER_ROOM   = register("BMSZombieVillagerRoom", ZombieVillagerRoom::new);
     }
 
-    private static StructurePieceType register(String name, StructurePieceType.ContextlessType structurePieceType) {
+    private static StructurePieceType register(String name, StructurePieceType structurePieceType) {
         return Registry.register(Registry.STRUCTURE_PIECE, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, name.toLowerCase(Locale.ROOT)), structurePieceType);
     }
 }
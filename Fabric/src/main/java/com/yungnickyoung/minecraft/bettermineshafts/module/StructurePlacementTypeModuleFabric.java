@@ -0,0 +1,11 @@
+package com.yungnickyoung.minecraft.bettermineshafts.module;
+
+import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import net.minecraft.core.Registry;
+import net.minecraft.resources.ResourceLocation;
+
+public class StructurePlacementTypeModuleFabric {
+    public static void init() {
+        Registry.register(Registry.STRUCTURE_PLACEMENT_TYPE, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "mineshaft_start"), StructurePlacementTypeModule.MINESHAFT_START);
+    }
+}
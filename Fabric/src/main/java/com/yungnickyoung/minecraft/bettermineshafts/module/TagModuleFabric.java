@@ -1,6 +1,9 @@
 package com.yungnickyoung.minecraft.bettermineshafts.module;
 
 import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.MineshaftVariantsConfiguration;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BlockStateFlags;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.minecraft.core.Registry;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.tags.TagKey;
@@ -8,5 +11,15 @@ import net.minecraft.tags.TagKey;
 public class TagModuleFabric {
     public static void init() {
         TagModule.HAS_BETTER_MINESHAFT = TagKey.create(Registry.BIOME_REGISTRY, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "has_better_mineshaft"));
+        TagModule.REPLACEABLE_BY_MINESHAFT = TagKey.create(Registry.BLOCK_REGISTRY, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "replaceable_by_mineshaft"));
+
+        // Block and biome tags are bound when the server loads its data packs, and again on /reload
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> invalidateTagCaches());
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> invalidateTagCaches());
+    }
+
+    private static void invalidateTagCaches() {
+        BlockStateFlags.invalidate();
+        MineshaftVariantsConfiguration.invalidateVariantTables();
     }
 }
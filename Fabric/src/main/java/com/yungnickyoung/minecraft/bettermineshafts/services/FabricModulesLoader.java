@@ -1,8 +1,10 @@
 package com.yungnickyoung.minecraft.bettermineshafts.services;
 
+import com.yungnickyoung.minecraft.bettermineshafts.module.CommandModuleFabric;
 import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModuleFabric;
 import com.yungnickyoung.minecraft.bettermineshafts.module.StructureFeatureModuleFabric;
 import com.yungnickyoung.minecraft.bettermineshafts.module.StructureFeaturePieceModuleFabric;
+import com.yungnickyoung.minecraft.bettermineshafts.module.StructurePlacementTypeModuleFabric;
 import com.yungnickyoung.minecraft.bettermineshafts.module.TagModuleFabric;
 
 public class FabricModulesLoader implements IModulesLoader {
@@ -12,5 +14,7 @@ public class FabricModulesLoader implements IModulesLoader {
         TagModuleFabric.init();
         StructureFeatureModuleFabric.init();
         StructureFeaturePieceModuleFabric.init();
+        StructurePlacementTypeModuleFabric.init();
+        CommandModuleFabric.init();
     }
 }
@@ -10,6 +10,9 @@ public final class BMConfigForge {
     public static final ForgeConfigSpec.ConfigValue<Integer> minY;
     public static final ForgeConfigSpec.ConfigValue<Integer> maxY;
     public static final ForgeConfigSpec.ConfigValue<Boolean> disableVanillaMineshafts;
+    public static final ForgeConfigSpec.ConfigValue<Boolean> legacySpawnRoll;
+    public static final ForgeConfigSpec.ConfigValue<Boolean> fastRng;
+    public static final ForgeConfigSpec.ConfigValue<Integer> statsLogInterval;
     public static final ConfigOresForge ores;
     public static final ConfigSpawnRatesForge spawnRates;
 
@@ -45,6 +48,34 @@ public final class BMConfigForge {
                                 Default: true""".indent(1))
                 .define("Disable Vanilla Mineshafts", true);
 
+        legacySpawnRoll = BUILDER
+                .worldRestart()
+                .comment(
+                        """
+                                Whether mineshaft locations should be rolled the same way as previous versions.
+                                Keep this enabled to get the same mineshafts on existing seeds.
+                                Disabling it uses a faster roll with the same spawn rate, but mineshafts will be in different places.
+                                Default: true""".indent(1))
+                .define("Legacy Spawn Roll", true);
+
+        fastRng = BUILDER
+                .worldRestart()
+                .comment(
+                        """
+                                Whether mineshafts should be generated using fewer random rolls.
+                                Enabling this makes generation faster, but mineshafts will look different
+                                than in previous versions on the same seed.
+                                Default: false""".indent(1))
+                .define("Fast RNG", false);
+
+        statsLogInterval = BUILDER
+                .comment(
+                        """
+                                How often, in minutes, to log a line of mineshaft generation stats. 0 disables it.
+                                The full stats are always available through the /bettermineshafts stats command.
+                                Default: 0""".indent(1))
+                .define("Stats Log Interval", 0);
+
         ores = new ConfigOresForge(BUILDER);
         spawnRates = new ConfigSpawnRatesForge(BUILDER);
 
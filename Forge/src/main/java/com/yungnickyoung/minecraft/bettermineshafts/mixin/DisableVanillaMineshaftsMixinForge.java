@@ -3,11 +3,11 @@ package com.yungnickyoung.minecraft.bettermineshafts.mixin;
 import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.SectionPos;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.StructureFeatureManager;
 import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.levelgen.feature.StructureFeature;
 import net.minecraft.world.level.levelgen.structure.StructureSet;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureManager;
 import org.spongepowered.asm.mixin.Mixin;
@@ -17,6 +17,10 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 @Mixin(ChunkGenerator.class)
 public class DisableVanillaMineshaftsMixinForge {
+    /**
+     * Runs for every structure set entry in every chunk, so the vanilla mineshaft feature is compared by identity
+     * instead of looking up and comparing its registry name.
+     */
     @Inject(method = "tryGenerateStructure", at = @At(value = "HEAD"), cancellable = true)
     void disableVanillaMineshafts(StructureSet.StructureSelectionEntry structureSetEntry,
                                    StructureFeatureManager structureFeatureManager,
@@ -27,7 +31,7 @@ public class DisableVanillaMineshaftsMixinForge {
                                    ChunkPos chunkPos,
                                    SectionPos sectionPos,
                                    CallbackInfoReturnable<Boolean> cir) {
-        if (BetterMineshaftsCommon.CONFIG.disableVanillaMineshafts && structureSetEntry.structure().value().feature.getRegistryName().equals(new ResourceLocation("mineshaft"))) {
+        if (BetterMineshaftsCommon.CONFIG.disableVanillaMineshafts() && structureSetEntry.structure().value().feature == StructureFeature.MINESHAFT) {
             cir.setReturnValue(false);
         }
     }
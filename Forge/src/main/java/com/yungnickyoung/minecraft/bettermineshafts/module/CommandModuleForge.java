@@ -0,0 +1,23 @@
+package com.yungnickyoung.minecraft.bettermineshafts.module;
+
+import com.yungnickyoung.minecraft.bettermineshafts.world.MineshaftMetrics;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TickEvent;
+
+public class CommandModuleForge {
+    public static void init() {
+        MinecraftForge.EVENT_BUS.addListener(CommandModuleForge::onRegisterCommands);
+        MinecraftForge.EVENT_BUS.addListener(CommandModuleForge::onServerTick);
+    }
+
+    private static void onRegisterCommands(RegisterCommandsEvent event) {
+        CommandModule.registerCommands(event.getDispatcher());
+    }
+
+    private static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END) {
+            MineshaftMetrics.tick();
+        }
+    }
+}
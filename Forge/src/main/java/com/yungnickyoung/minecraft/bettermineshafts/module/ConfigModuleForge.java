@@ -104,30 +104,36 @@ public class ConfigModuleForge {
     }
 
     private static void bakeConfig() {
-        BetterMineshaftsCommon.CONFIG.mineshaftSpawnRate = BMConfigForge.mineshaftSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.minY = BMConfigForge.minY.get();
-        BetterMineshaftsCommon.CONFIG.maxY = BMConfigForge.maxY.get();
-        BetterMineshaftsCommon.CONFIG.disableVanillaMineshafts = BMConfigForge.disableVanillaMineshafts.get();
-        BetterMineshaftsCommon.CONFIG.ores.enabled = BMConfigForge.ores.enabled.get();
-        BetterMineshaftsCommon.CONFIG.ores.cobble = BMConfigForge.ores.cobble.get();
-        BetterMineshaftsCommon.CONFIG.ores.coal = BMConfigForge.ores.coal.get();
-        BetterMineshaftsCommon.CONFIG.ores.iron = BMConfigForge.ores.iron.get();
-        BetterMineshaftsCommon.CONFIG.ores.redstone = BMConfigForge.ores.redstone.get();
-        BetterMineshaftsCommon.CONFIG.ores.gold = BMConfigForge.ores.gold.get();
-        BetterMineshaftsCommon.CONFIG.ores.lapis = BMConfigForge.ores.lapis.get();
-        BetterMineshaftsCommon.CONFIG.ores.emerald = BMConfigForge.ores.emerald.get();
-        BetterMineshaftsCommon.CONFIG.ores.diamond = BMConfigForge.ores.diamond.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.lanternSpawnRate = BMConfigForge.spawnRates.lanternSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.torchSpawnRate = BMConfigForge.spawnRates.torchSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.workstationSpawnRate = BMConfigForge.spawnRates.workstationSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.workstationDungeonSpawnRate = BMConfigForge.spawnRates.workstationDungeonSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftSpawnRate = BMConfigForge.spawnRates.smallShaftSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.cobwebSpawnRate = BMConfigForge.spawnRates.cobwebSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftChestMinecartSpawnRate = BMConfigForge.spawnRates.smallShaftChestMinecartSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftTntMinecartSpawnRate = BMConfigForge.spawnRates.smallShaftTntMinecartSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.mainShaftChestMinecartSpawnRate = BMConfigForge.spawnRates.mainShaftChestMinecartSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.mainShaftTntMinecartSpawnRate = BMConfigForge.spawnRates.mainShaftTntMinecartSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.zombieVillagerRoomSpawnRate = BMConfigForge.spawnRates.zombieVillagerRoomSpawnRate.get();
-        BetterMineshaftsCommon.CONFIG.spawnRates.smallShaftPieceChainLength = BMConfigForge.spawnRates.smallShaftPieceChainLength.get();
+        BetterMineshaftsCommon.CONFIG = new ConfigModule(
+                BMConfigForge.mineshaftSpawnRate.get(),
+                BMConfigForge.minY.get(),
+                BMConfigForge.maxY.get(),
+                BMConfigForge.disableVanillaMineshafts.get(),
+                BMConfigForge.legacySpawnRoll.get(),
+                BMConfigForge.fastRng.get(),
+                BMConfigForge.statsLogInterval.get(),
+                new ConfigModule.Ores(
+                        BMConfigForge.ores.enabled.get(),
+                        BMConfigForge.ores.cobble.get(),
+                        BMConfigForge.ores.coal.get(),
+                        BMConfigForge.ores.iron.get(),
+                        BMConfigForge.ores.redstone.get(),
+                        BMConfigForge.ores.gold.get(),
+                        BMConfigForge.ores.lapis.get(),
+                        BMConfigForge.ores.emerald.get(),
+                        BMConfigForge.ores.diamond.get()),
+                new ConfigModule.SpawnRates(
+                        BMConfigForge.spawnRates.lanternSpawnRate.get(),
+                        BMConfigForge.spawnRates.torchSpawnRate.get(),
+                        BMConfigForge.spawnRates.workstationSpawnRate.get(),
+                        BMConfigForge.spawnRates.workstationDungeonSpawnRate.get(),
+                        BMConfigForge.spawnRates.smallShaftSpawnRate.get(),
+                        BMConfigForge.spawnRates.cobwebSpawnRate.get(),
+                        BMConfigForge.spawnRates.smallShaftChestMinecartSpawnRate.get(),
+                        BMConfigForge.spawnRates.smallShaftTntMinecartSpawnRate.get(),
+                        BMConfigForge.spawnRates.mainShaftChestMinecartSpawnRate.get(),
+                        BMConfigForge.spawnRates.mainShaftTntMinecartSpawnRate.get(),
+                        BMConfigForge.spawnRates.zombieVillagerRoomSpawnRate.get(),
+                        BMConfigForge.spawnRates.smallShaftPieceChainLength.get()));
     }
 }
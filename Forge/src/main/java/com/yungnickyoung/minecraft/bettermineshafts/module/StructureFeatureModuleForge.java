@@ -14,5 +14,7 @@ public class StructureFeatureModuleForge {
     private static void registerStructures(RegistryEvent.Register<StructureFeature<?>> event) {
         StructureFeatureModule.BETTER_MINESHAFT.setRegistryName(new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "mineshaft"));
         event.getRegistry().register(StructureFeatureModule.BETTER_MINESHAFT);
+        StructureFeatureModule.BETTER_MINESHAFT_VARIANTS.setRegistryName(new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "mineshaft_variants"));
+        event.getRegistry().register(StructureFeatureModule.BETTER_MINESHAFT_VARIANTS);
     }
 }
@@ -32,7 +32,7 @@ public class StructureFeaturePieceModuleForge {
         });
     }
     
-    private static StructurePieceType register(String name, StructurePieceType.ContextlessType structurePieceType) {
+    private static StructurePieceType register(String name, StructurePieceType structurePieceType) {
         return Registry.register(Registry.STRUCTURE_PIECE, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, name.toLowerCase(Locale.ROOT)), structurePieceType);
     }
 }
@@ -0,0 +1,20 @@
+package com.yungnickyoung.minecraft.bettermineshafts.module;
+
+import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import net.minecraft.core.Registry;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
+import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
+
+public class StructurePlacementTypeModuleForge {
+    public static void init() {
+        FMLJavaModLoadingContext.get().getModEventBus().addListener(StructurePlacementTypeModuleForge::commonSetup);
+    }
+
+    /**
+     * Placement types live in a vanilla registry Forge doesn't manage, so they are registered directly.
+     */
+    private static void commonSetup(FMLCommonSetupEvent event) {
+        event.enqueueWork(() -> Registry.register(Registry.STRUCTURE_PLACEMENT_TYPE, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "mineshaft_start"), StructurePlacementTypeModule.MINESHAFT_START));
+    }
+}
@@ -1,20 +1,34 @@
 package com.yungnickyoung.minecraft.bettermineshafts.module;
 
 import com.yungnickyoung.minecraft.bettermineshafts.BetterMineshaftsCommon;
+import com.yungnickyoung.minecraft.bettermineshafts.world.config.MineshaftVariantsConfiguration;
+import com.yungnickyoung.minecraft.bettermineshafts.world.generator.BlockStateFlags;
 import net.minecraft.core.Registry;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.tags.TagKey;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 
 public class TagModuleForge {
     public static void init() {
         FMLJavaModLoadingContext.get().getModEventBus().addListener(TagModuleForge::commonSetup);
+        MinecraftForge.EVENT_BUS.addListener(TagModuleForge::onTagsUpdated);
     }
 
     private static void commonSetup(FMLCommonSetupEvent event) {
         event.enqueueWork(() -> {
             TagModule.HAS_BETTER_MINESHAFT = TagKey.create(Registry.BIOME_REGISTRY, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "has_better_mineshaft"));
+            TagModule.REPLACEABLE_BY_MINESHAFT = TagKey.create(Registry.BLOCK_REGISTRY, new ResourceLocation(BetterMineshaftsCommon.MOD_ID, "replaceable_by_mineshaft"));
         });
     }
+
+    /**
+     * Block and biome tags are bound when the server loads its data packs, and again on /reload.
+     */
+    private static void onTagsUpdated(TagsUpdatedEvent event) {
+        BlockStateFlags.invalidate();
+        MineshaftVariantsConfiguration.invalidateVariantTables();
+    }
 }
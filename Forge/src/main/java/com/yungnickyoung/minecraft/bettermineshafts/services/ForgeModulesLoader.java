@@ -1,8 +1,10 @@
 package com.yungnickyoung.minecraft.bettermineshafts.services;
 
+import com.yungnickyoung.minecraft.bettermineshafts.module.CommandModuleForge;
 import com.yungnickyoung.minecraft.bettermineshafts.module.ConfigModuleForge;
 import com.yungnickyoung.minecraft.bettermineshafts.module.StructureFeatureModuleForge;
 import com.yungnickyoung.minecraft.bettermineshafts.module.StructureFeaturePieceModuleForge;
+import com.yungnickyoung.minecraft.bettermineshafts.module.StructurePlacementTypeModuleForge;
 import com.yungnickyoung.minecraft.bettermineshafts.module.TagModuleForge;
 
 public class ForgeModulesLoader implements IModulesLoader {
@@ -12,5 +14,7 @@ public class ForgeModulesLoader implements IModulesLoader {
         TagModuleForge.init();
         StructureFeatureModuleForge.init();
         StructureFeaturePieceModuleForge.init();
+        StructurePlacementTypeModuleForge.init();
+        CommandModuleForge.init();
     }
 }